@@ -0,0 +1,40 @@
+// File: src/jmh/java/se/iqesolutions/datamanager/benchmark/ApplicationState.java
+
+package se.iqesolutions.datamanager.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import se.iqesolutions.datamanager.DataManagerApplication;
+
+/**
+ * The application context without the web server, started once per benchmark trial. Application
+ * logging is turned off so it does not dominate the measurements.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(DataManagerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.se.iqesolutions=OFF", "datamanager.ticks.directory=target/benchmark-ticks")
+                .run();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,57 @@
+// File: src/jmh/java/se/iqesolutions/datamanager/benchmark/DataManagerServiceBenchmark.java
+
+package se.iqesolutions.datamanager.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.iqesolutions.datamanager.DataManagerBatchRequest;
+import se.iqesolutions.datamanager.DataManagerBatchResponse;
+import se.iqesolutions.datamanager.DataManagerRequest;
+import se.iqesolutions.datamanager.DataManagerResponse;
+import se.iqesolutions.datamanager.service.DataManagerService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end planning and collection through {@link DataManagerService}, without HTTP.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataManagerServiceBenchmark {
+
+    private DataManagerService service;
+    private DataManagerBatchRequest batchRequest;
+
+    @State(Scope.Benchmark)
+    public static class Shape {
+        @Param({"sharePrice", "stockScore", "worstCase"})
+        public String shape;
+
+        DataManagerRequest request;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            request = Requests.of(shape);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        service = application.getBean(DataManagerService.class);
+        batchRequest = Requests.stockScoreBatch(100);
+    }
+
+    @Benchmark
+    public DataManagerResponse collectDataProducts(Shape shape) {
+        return service.collectDataProducts(shape.request);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public DataManagerBatchResponse collectStockScoreBatchPerEntity() {
+        return service.collectDataProducts(batchRequest);
+    }
+}
@@ -0,0 +1,61 @@
+// File: src/jmh/java/se/iqesolutions/datamanager/benchmark/ProviderBenchmark.java
+
+package se.iqesolutions.datamanager.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.*;
+import se.iqesolutions.datamanager.provider.DataProvider;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DataProvider#collectDataProduct} of each provider bean, with all of its dependencies available.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProviderBenchmark {
+
+    @Param({
+            "ConfigurationProvider",
+            "CountryProvider",
+            "EarningsDataProvider",
+            "FinnishStockDataProvider",
+            "RealTimeStockDataFeedProvider",
+            "StockScoringProvider"
+    })
+    public String provider;
+
+    private DataProvider dataProvider;
+    private Class<? extends DataProduct> dataProduct;
+    private final Map<Class<? extends DataProduct>, DataProduct> availableDataProducts = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) throws Exception {
+        dataProvider = application.getBean(findProviderClass());
+        dataProduct = dataProvider.getSupportedDataProducts().get(0);
+
+        availableDataProducts.put(TickerSymbol.class, new TickerSymbol("NOK"));
+        availableDataProducts.put(Country.class, new Country("Finland"));
+        availableDataProducts.put(RealTimeSharePrice.class, new RealTimeSharePrice("NOK", BigDecimal.valueOf(50.0)));
+        availableDataProducts.put(LastReportedEarningsPerShare.class, new LastReportedEarningsPerShare("NOK", BigDecimal.valueOf(5.0)));
+        availableDataProducts.put(Configuration.class, new Configuration(Map.of("stockScoreThreshold", 5.0)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends DataProvider> findProviderClass() throws ClassNotFoundException {
+        return (Class<? extends DataProvider>) Class.forName("se.iqesolutions.datamanager.provider.impl." + provider);
+    }
+
+    @Benchmark
+    public DataProduct collectDataProduct() throws Exception {
+        return dataProvider.collectDataProduct(dataProduct, availableDataProducts, null);
+    }
+}
@@ -0,0 +1,72 @@
+// File: src/jmh/java/se/iqesolutions/datamanager/benchmark/Requests.java
+
+package se.iqesolutions.datamanager.benchmark;
+
+import se.iqesolutions.datamanager.DataManagerBatchRequest;
+import se.iqesolutions.datamanager.DataManagerRequest;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request shapes shared by the benchmarks.
+ */
+final class Requests {
+
+    private static final DataProductConstraint REAL_TIME = new DataProductConstraint(
+            List.of("REAL_TIME_FEED"), null, 0, 1.0, 10.0, 0.5, 0.5);
+    private static final DataProductConstraint CALCULATION = new DataProductConstraint(
+            List.of("CALCULATION"), null, 0, 1.0, 10.0, 0.5, 0.5);
+
+    private Requests() {
+    }
+
+    // One real-time price for a ticker, the most common request
+    static DataManagerRequest sharePrice() {
+        return new DataManagerRequest(
+                Map.of(RealTimeSharePrice.class.getName(), REAL_TIME),
+                List.of(new TickerSymbol("AAPL")));
+    }
+
+    static DataManagerRequest stockScore() {
+        return new DataManagerRequest(
+                Map.of(StockScore.class.getName(), CALCULATION),
+                List.of(new TickerSymbol("AAPL")));
+    }
+
+    // Every product at once for a Finnish share, plus names that fail to resolve or cannot be served
+    static DataManagerRequest worstCase() {
+        Map<String, DataProductConstraint> requested = new LinkedHashMap<>();
+        requested.put(StockScore.class.getName(), CALCULATION);
+        requested.put(RealTimeSharePrice.class.getName(), REAL_TIME);
+        requested.put(LastReportedEarningsPerShare.class.getName(), REAL_TIME);
+        requested.put(Country.class.getName(), null);
+        requested.put(Configuration.class.getName(), null);
+        requested.put(UnsupportedDataProduct.class.getName(), null);
+        requested.put("se.iqesolutions.datamanager.product.impl.NonExistentProduct", null);
+        return new DataManagerRequest(requested, List.of(new TickerSymbol("NOK")));
+    }
+
+    static DataManagerRequest of(String shape) {
+        return switch (shape) {
+            case "sharePrice" -> sharePrice();
+            case "stockScore" -> stockScore();
+            case "worstCase" -> worstCase();
+            default -> throw new IllegalArgumentException("Unknown request shape " + shape);
+        };
+    }
+
+    static DataManagerBatchRequest stockScoreBatch(int entities) {
+        List<DataManagerBatchRequest.Entity> batch = new ArrayList<>(entities);
+        for (int i = 0; i < entities; i++) {
+            List<DataProduct> available = List.of(new TickerSymbol("T" + i));
+            batch.add(new DataManagerBatchRequest.Entity(String.valueOf(i), available));
+        }
+        return new DataManagerBatchRequest(Map.of(StockScore.class.getName(), CALCULATION), batch);
+    }
+}
@@ -0,0 +1,65 @@
+// File: src/jmh/java/se/iqesolutions/datamanager/benchmark/SerializationBenchmark.java
+
+package se.iqesolutions.datamanager.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import se.iqesolutions.datamanager.DataManagerRequest;
+import se.iqesolutions.datamanager.DataManagerResponse;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson polymorphic (de)serialization of the request and response bodies of {@code /data/collect}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] requestJson;
+    private DataManagerResponse response;
+    private byte[] responseJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        requestJson = objectMapper.writeValueAsBytes(Requests.worstCase());
+
+        List<DataProduct> collected = List.of(
+                new TickerSymbol("NOK"),
+                new Country("Finland"),
+                new Configuration(Map.of("stockScoreThreshold", 5.0)),
+                new RealTimeSharePrice("NOK", BigDecimal.valueOf(50.0)),
+                new LastReportedEarningsPerShare("NOK", BigDecimal.valueOf(5.0)),
+                new StockScore("NOK", 5.0)
+        );
+        response = new DataManagerResponse(collected, Map.of(
+                "se.iqesolutions.datamanager.product.impl.NonExistentProduct",
+                "Class se.iqesolutions.datamanager.product.impl.NonExistentProduct not found"));
+        responseJson = objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public DataManagerRequest readRequest() throws Exception {
+        return objectMapper.readValue(requestJson, DataManagerRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public DataManagerResponse readResponse() throws Exception {
+        return objectMapper.readValue(responseJson, DataManagerResponse.class);
+    }
+}
@@ -0,0 +1,45 @@
+// File: src/jmh/java/se/iqesolutions/datamanager/benchmark/StockScoringBenchmark.java
+
+package se.iqesolutions.datamanager.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.*;
+import se.iqesolutions.datamanager.provider.impl.StockScoringProvider;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link StockScoringProvider} calculation on its own, for scores below and capped at the threshold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockScoringBenchmark {
+
+    @Param({"2.0", "20.0"})
+    public double earningsPerShare;
+
+    private final StockScoringProvider provider = new StockScoringProvider();
+    private final Map<Class<? extends DataProduct>, DataProduct> availableDataProducts = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        availableDataProducts.put(RealTimeSharePrice.class, new RealTimeSharePrice("AAPL", BigDecimal.valueOf(100.0)));
+        availableDataProducts.put(LastReportedEarningsPerShare.class,
+                new LastReportedEarningsPerShare("AAPL", BigDecimal.valueOf(earningsPerShare)));
+        availableDataProducts.put(Configuration.class, new Configuration(Map.of("stockScoreThreshold", 5.0)));
+        availableDataProducts.put(Country.class, new Country("USA"));
+    }
+
+    @Benchmark
+    public DataProduct calculateStockScore() throws Exception {
+        return provider.collectDataProduct(StockScore.class, availableDataProducts, null);
+    }
+}
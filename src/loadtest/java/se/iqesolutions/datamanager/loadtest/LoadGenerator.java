@@ -0,0 +1,120 @@
+// File: src/loadtest/java/se/iqesolutions/datamanager/loadtest/LoadGenerator.java
+
+package se.iqesolutions.datamanager.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load at a fixed arrival rate. Requests are sent on a schedule that does not wait for
+ * earlier responses, and every latency is measured from the request's scheduled start rather
+ * than from when it was actually sent. A stalled server therefore shows up in the percentiles
+ * instead of silently lowering the offered load (coordinated omission).
+ */
+final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final RequestMix mix;
+    private final Duration requestTimeout;
+    private final SplittableRandom random;
+
+    record Step(
+            double targetRate,
+            double achievedRate,
+            long requests,
+            long errors,
+            double p50Millis,
+            double p99Millis,
+            double p999Millis,
+            double maxMillis
+    ) {
+    }
+
+    LoadGenerator(HttpClient client, URI baseUri, RequestMix mix, Duration requestTimeout, long seed) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.mix = mix;
+        this.requestTimeout = requestTimeout;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Offers {@code rate} requests per second for the warmup and then the measured duration, and
+     * waits for the requests still in flight before reporting the measured part.
+     */
+    Step run(double rate, Duration warmup, Duration duration) {
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        LongAdder completed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        ConcurrentHashMap.KeySetView<CompletableFuture<?>, Boolean> inFlight = ConcurrentHashMap.newKeySet();
+
+        long intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / rate));
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            long scheduled = intended;
+            CompletableFuture<?> call = send(mix.next(random)).whenComplete((status, throwable) -> {
+                if (!measured) {
+                    return;
+                }
+                recorder.recordValue(Math.min(System.nanoTime() - scheduled, HIGHEST_TRACKABLE_NANOS));
+                if (throwable != null || status != 200) {
+                    errors.increment();
+                }
+                completed.increment();
+            });
+            inFlight.add(call);
+            call.whenComplete((status, throwable) -> inFlight.remove(call));
+        }
+        // Requests still running at the end belong to this step, so it is not over until they are
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).exceptionally(throwable -> null).join();
+        long elapsed = System.nanoTime() - measureFrom;
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new Step(
+                rate,
+                completed.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed,
+                completed.sum(),
+                errors.sum(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private CompletableFuture<Integer> send(RequestMix.Shape shape) {
+        byte[] body = shape.bodies().get(random.nextInt(shape.bodies().size()));
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(shape.path()))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,138 @@
+// File: src/loadtest/java/se/iqesolutions/datamanager/loadtest/LoadTest.java
+
+package se.iqesolutions.datamanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import se.iqesolutions.datamanager.DataManagerApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the saturation point of a single node. Starts the application on a random port and
+ * offers an increasing open-loop arrival rate to {@code /data/collect} until the node falls
+ * behind the offered rate, exceeds the p99 budget or starts failing requests.
+ * <p>
+ * Run with {@code mvn -Ploadtest verify}. Settings are system properties, see {@link Settings}.
+ */
+public final class LoadTest {
+
+    record Settings(
+            List<Double> rates,
+            String mix,
+            int batchSize,
+            Duration warmup,
+            Duration duration,
+            Duration requestTimeout,
+            double maxP99Millis,
+            double maxErrorRate,
+            long seed,
+            Path resultFile
+    ) {
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Arrays.stream(System.getProperty("loadtest.rates", "50,100,200,400,800,1600").split(","))
+                            .map(String::trim)
+                            .map(Double::valueOf)
+                            .toList(),
+                    System.getProperty("loadtest.mix", "sharePrice:70,stockScore:25,batch:5"),
+                    Integer.getInteger("loadtest.batch-size", 20),
+                    Duration.ofSeconds(Long.getLong("loadtest.warmup-s", 5)),
+                    Duration.ofSeconds(Long.getLong("loadtest.duration-s", 20)),
+                    Duration.ofSeconds(Long.getLong("loadtest.request-timeout-s", 30)),
+                    Double.parseDouble(System.getProperty("loadtest.max-p99-ms", "250")),
+                    Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")),
+                    Long.getLong("loadtest.seed", 42),
+                    Path.of(System.getProperty("loadtest.result-file", "target/loadtest-result.json")));
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Settings settings = Settings.fromSystemProperties();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DataManagerApplication.class)
+                // Command line properties override application.yml, unlike default properties. Tomcat's
+                // warnings about provider threads still running at shutdown are expected here
+                .run(concat(args, "--server.port=0", "--logging.level.se.iqesolutions=OFF",
+                        "--logging.level.org.apache.catalina.loader=ERROR", "--datamanager.ticks.directory=target/loadtest-ticks"));
+        try {
+            run(settings, context);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void run(Settings settings, ConfigurableApplicationContext context) throws IOException {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        RequestMix mix = RequestMix.parse(settings.mix(), settings.batchSize(), objectMapper);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LoadGenerator generator = new LoadGenerator(
+                client, URI.create("http://localhost:" + port), mix, settings.requestTimeout(), settings.seed());
+
+        System.out.printf("Offering %s on port %d, %ds warmup and %ds measured per rate%n",
+                settings.mix(), port, settings.warmup().toSeconds(), settings.duration().toSeconds());
+        System.out.printf("%10s %10s %10s %8s %10s %10s %10s %10s%n",
+                "rate/s", "achieved/s", "requests", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        List<LoadGenerator.Step> steps = new ArrayList<>();
+        LoadGenerator.Step saturatedAt = null;
+        for (double rate : settings.rates()) {
+            LoadGenerator.Step step = generator.run(rate, settings.warmup(), settings.duration());
+            steps.add(step);
+            System.out.printf("%10.0f %10.1f %10d %8d %10.2f %10.2f %10.2f %10.2f%n",
+                    step.targetRate(), step.achievedRate(), step.requests(), step.errors(),
+                    step.p50Millis(), step.p99Millis(), step.p999Millis(), step.maxMillis());
+            if (saturated(step, settings)) {
+                saturatedAt = step;
+                break;
+            }
+        }
+
+        LoadGenerator.Step sustained = steps.stream().filter(step -> !saturated(step, settings)).reduce((first, second) -> second).orElse(null);
+        if (saturatedAt == null) {
+            System.out.println("Not saturated at the highest offered rate, add higher loadtest.rates to find the limit");
+        } else {
+            System.out.printf("Saturated at %.0f requests/s, highest sustained rate %s%n",
+                    saturatedAt.targetRate(), sustained == null ? "none" : String.format("%.0f requests/s", sustained.targetRate()));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("settings", settings);
+        result.put("steps", steps);
+        result.put("saturatedAt", saturatedAt == null ? null : saturatedAt.targetRate());
+        result.put("sustained", sustained == null ? null : sustained.targetRate());
+        Files.createDirectories(settings.resultFile().toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(settings.resultFile().toFile(), result);
+        System.out.println("Result written to " + settings.resultFile());
+    }
+
+    private static String[] concat(String[] args, String... more) {
+        String[] all = Arrays.copyOf(args, args.length + more.length);
+        System.arraycopy(more, 0, all, args.length, more.length);
+        return all;
+    }
+
+    private static boolean saturated(LoadGenerator.Step step, Settings settings) {
+        return step.achievedRate() < step.targetRate() * 0.95
+                || step.p99Millis() > settings.maxP99Millis()
+                || step.requests() > 0 && step.errors() > step.requests() * settings.maxErrorRate();
+    }
+}
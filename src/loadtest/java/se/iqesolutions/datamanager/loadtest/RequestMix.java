@@ -0,0 +1,107 @@
+// File: src/loadtest/java/se/iqesolutions/datamanager/loadtest/RequestMix.java
+
+package se.iqesolutions.datamanager.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import se.iqesolutions.datamanager.DataManagerBatchRequest;
+import se.iqesolutions.datamanager.DataManagerRequest;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+import se.iqesolutions.datamanager.product.impl.StockScore;
+import se.iqesolutions.datamanager.product.impl.TickerSymbol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted mix of request shapes, e.g. {@code sharePrice:70,stockScore:25,batch:5}. Bodies are
+ * serialized once up front so the generator only picks and sends.
+ */
+final class RequestMix {
+
+    private static final DataProductConstraint REAL_TIME = new DataProductConstraint(
+            List.of("REAL_TIME_FEED"), null, 0, 1.0, 10.0, 0.5, 0.5);
+    private static final DataProductConstraint CALCULATION = new DataProductConstraint(
+            List.of("CALCULATION"), null, 0, 1.0, 10.0, 0.5, 0.5);
+    private static final String[] TICKERS = {"AAPL", "MSFT", "NOK", "GOOG", "AMZN", "TSLA", "NVDA", "META"};
+
+    record Shape(String name, String path, List<byte[]> bodies) {
+    }
+
+    private final Shape[] shapes;
+    private final int[] cumulativeWeights;
+
+    private RequestMix(Shape[] shapes, int[] cumulativeWeights) {
+        this.shapes = shapes;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    static RequestMix parse(String mix, int batchSize, ObjectMapper objectMapper) {
+        String[] entries = mix.split(",");
+        Shape[] shapes = new Shape[entries.length];
+        int[] cumulativeWeights = new int[entries.length];
+        int total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] nameAndWeight = entries[i].trim().split(":");
+            int weight = nameAndWeight.length > 1 ? Integer.parseInt(nameAndWeight[1].trim()) : 1;
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight of " + nameAndWeight[0] + " must be positive");
+            }
+            shapes[i] = shape(nameAndWeight[0].trim(), batchSize, objectMapper);
+            total += weight;
+            cumulativeWeights[i] = total;
+        }
+        return new RequestMix(shapes, cumulativeWeights);
+    }
+
+    Shape next(RandomGenerator random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return shapes[i];
+            }
+        }
+        throw new IllegalStateException("Weights do not cover " + pick);
+    }
+
+    // One body per ticker so requests are not all coalesced into the same provider calls
+    private static Shape shape(String name, int batchSize, ObjectMapper objectMapper) {
+        List<byte[]> bodies = new ArrayList<>(TICKERS.length);
+        for (int i = 0; i < TICKERS.length; i++) {
+            Object request = switch (name) {
+                case "sharePrice" -> new DataManagerRequest(
+                        Map.of(RealTimeSharePrice.class.getName(), REAL_TIME),
+                        List.of(new TickerSymbol(TICKERS[i])));
+                case "stockScore" -> new DataManagerRequest(
+                        Map.of(StockScore.class.getName(), CALCULATION),
+                        List.of(new TickerSymbol(TICKERS[i])));
+                case "batch" -> batch(i, batchSize);
+                default -> throw new IllegalArgumentException(
+                        "Unknown request shape " + name + ", expected sharePrice, stockScore or batch");
+            };
+            bodies.add(write(objectMapper, request));
+        }
+        return new Shape(name, name.equals("batch") ? "/data/collect/batch" : "/data/collect", List.copyOf(bodies));
+    }
+
+    private static DataManagerBatchRequest batch(int offset, int batchSize) {
+        List<DataManagerBatchRequest.Entity> entities = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            List<DataProduct> available = List.of(new TickerSymbol(TICKERS[(offset + i) % TICKERS.length] + i));
+            entities.add(new DataManagerBatchRequest.Entity(String.valueOf(i), available));
+        }
+        return new DataManagerBatchRequest(Map.of(StockScore.class.getName(), CALCULATION), entities);
+    }
+
+    private static byte[] write(ObjectMapper objectMapper, Object request) {
+        try {
+            return objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + request, e);
+        }
+    }
+}
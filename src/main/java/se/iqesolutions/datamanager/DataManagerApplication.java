@@ -2,10 +2,14 @@
 
 package se.iqesolutions.datamanager;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import se.iqesolutions.datamanager.service.DataManagerService;
+import se.iqesolutions.datamanager.engine.ProviderExecutors;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 
 @SpringBootApplication
 public class DataManagerApplication {
@@ -13,4 +17,13 @@ public class DataManagerApplication {
     public static void main(String[] args) {
         SpringApplication.run(DataManagerApplication.class, args);
     }
-}
\ No newline at end of file
+
+    // Threads used by the execution engine to invoke data providers
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService dataProviderExecutor(
+            @Value("${datamanager.execution.mode:platform}") String mode,
+            @Value("${datamanager.execution.pool-size:64}") int poolSize
+    ) {
+        return ProviderExecutors.create(ProviderExecutors.Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT)), poolSize);
+    }
+}
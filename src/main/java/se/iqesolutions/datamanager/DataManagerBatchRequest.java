@@ -0,0 +1,37 @@
+// File: src/main/java/se/iqesolutions/datamanager/DataManagerBatchRequest.java
+
+package se.iqesolutions.datamanager;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.List;
+import java.util.Map;
+
+public record DataManagerBatchRequest(
+    @NotNull
+    @Valid
+    Map<String, @Valid DataProductConstraint> requestedDataProducts,
+
+    @NotNull
+    @Size(min = 1)
+    @Valid
+    List<@Valid @NotNull Entity> entities
+) {
+
+    /**
+     * One subject of the batch, e.g. a ticker, identified by its already available data products.
+     * The entityId is echoed in the response; it defaults to the entity's position in the batch.
+     */
+    public record Entity(
+        String entityId,
+
+        @NotNull
+        @Valid
+        List<@Valid DataProduct> alreadyAvailableDataProducts
+    ) {
+    }
+}
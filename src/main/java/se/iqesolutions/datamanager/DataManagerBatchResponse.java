@@ -0,0 +1,20 @@
+// File: src/main/java/se/iqesolutions/datamanager/DataManagerBatchResponse.java
+
+package se.iqesolutions.datamanager;
+
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.List;
+import java.util.Map;
+
+public record DataManagerBatchResponse(
+    List<EntityResult> results
+) {
+
+    public record EntityResult(
+        String entityId,
+        List<DataProduct> collectedDataProducts,
+        Map<String, String> failedDataProducts
+    ) {
+    }
+}
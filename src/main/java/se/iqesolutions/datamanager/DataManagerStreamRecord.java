@@ -0,0 +1,36 @@
+// File: src/main/java/se/iqesolutions/datamanager/DataManagerStreamRecord.java
+
+package se.iqesolutions.datamanager;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+/**
+ * One line of a streamed collection. Every data product is written as {@code collected} or
+ * {@code failed} as soon as it is resolved, and the stream ends with a single {@code summary}.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(DataManagerStreamRecord.Collected.class),
+        @JsonSubTypes.Type(DataManagerStreamRecord.Failed.class),
+        @JsonSubTypes.Type(DataManagerStreamRecord.Summary.class)
+})
+public sealed interface DataManagerStreamRecord {
+
+    @JsonTypeName("collected")
+    record Collected(DataProduct dataProduct) implements DataManagerStreamRecord {
+    }
+
+    @JsonTypeName("failed")
+    record Failed(String dataProduct, String reason) implements DataManagerStreamRecord {
+    }
+
+    /**
+     * Counts of the whole collection, equal to the sizes of the lists in a {@link DataManagerResponse}.
+     */
+    @JsonTypeName("summary")
+    record Summary(int collectedDataProducts, int failedDataProducts, long elapsedMillis) implements DataManagerStreamRecord {
+    }
+}
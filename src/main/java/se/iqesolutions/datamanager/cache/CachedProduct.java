@@ -0,0 +1,12 @@
+// File: src/main/java/se/iqesolutions/datamanager/cache/CachedProduct.java
+
+package se.iqesolutions.datamanager.cache;
+
+import se.iqesolutions.datamanager.product.DataProduct;
+
+public record CachedProduct(DataProduct dataProduct, long fetchedAtMillis) {
+
+    public boolean isFresh(int maxAgeSeconds, long nowMillis) {
+        return nowMillis - fetchedAtMillis <= maxAgeSeconds * 1000L;
+    }
+}
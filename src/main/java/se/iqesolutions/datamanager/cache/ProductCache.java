@@ -0,0 +1,92 @@
+// File: src/main/java/se/iqesolutions/datamanager/cache/ProductCache.java
+
+package se.iqesolutions.datamanager.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of collected data products in front of provider invocation. Every entry keeps the
+ * time it was fetched so each request can apply its own {@code maxCacheAgeSeconds}, and it expires
+ * {@code expire-after-seconds} after that time. With a {@link ProductCacheStore} enabled, entries
+ * are also kept on disk and the cache starts with the entries stored before a restart.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<ProductCacheKey, CachedProduct> cache;
+    private final ProductCacheStore store;
+
+    public ProductCache(long maxSize, long expireAfterSeconds) {
+        this(maxSize, expireAfterSeconds, null);
+    }
+
+    @Autowired
+    public ProductCache(
+            @Value("${datamanager.product-cache.max-size:10000}") long maxSize,
+            @Value("${datamanager.product-cache.expire-after-seconds:86400}") long expireAfterSeconds,
+            ProductCacheStore store
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAfterFetch(TimeUnit.SECONDS.toMillis(expireAfterSeconds)))
+                .recordStats()
+                .build();
+        this.store = store;
+        if (store != null) {
+            // Reloaded entries keep their fetch time, so their age and expiry carry on from before the restart
+            store.load(cache::put);
+        }
+    }
+
+    private record ExpireAfterFetch(long expireAfterMillis) implements Expiry<ProductCacheKey, CachedProduct> {
+
+        @Override
+        public long expireAfterCreate(ProductCacheKey key, CachedProduct cachedProduct, long currentTime) {
+            long remainingMillis = cachedProduct.fetchedAtMillis() + expireAfterMillis - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(ProductCacheKey key, CachedProduct cachedProduct, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, cachedProduct, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ProductCacheKey key, CachedProduct cachedProduct, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Returns the cached entry if it is not older than {@code maxAgeSeconds}, otherwise {@code null}.
+     */
+    public CachedProduct get(ProductCacheKey key, int maxAgeSeconds) {
+        if (maxAgeSeconds <= 0) {
+            return null;
+        }
+        CachedProduct cachedProduct = cache.getIfPresent(key);
+        if (cachedProduct == null || !cachedProduct.isFresh(maxAgeSeconds, System.currentTimeMillis())) {
+            return null;
+        }
+        return cachedProduct;
+    }
+
+    public void put(ProductCacheKey key, CachedProduct cachedProduct) {
+        cache.put(key, cachedProduct);
+        if (store != null) {
+            store.append(key, cachedProduct);
+        }
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,16 @@
+// File: src/main/java/se/iqesolutions/datamanager/cache/ProductCacheKey.java
+
+package se.iqesolutions.datamanager.cache;
+
+import se.iqesolutions.datamanager.product.DataProduct;
+
+/**
+ * Identifies a cached data product. The entity is whatever identifies the subject of the request,
+ * typically the {@code TickerSymbol} named by the constraint's {@code cacheKey}.
+ */
+public record ProductCacheKey(
+        Class<? extends DataProduct> dataProduct,
+        Object entity,
+        String cacheKey
+) {
+}
@@ -0,0 +1,342 @@
+// File: src/main/java/se/iqesolutions/datamanager/cache/ProductCacheStore.java
+
+package se.iqesolutions.datamanager.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.DataProductTypeRegistry;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Optional persistent layer under the {@link ProductCache}, so a restarted node starts with the
+ * products it had already fetched. Every cached entry is appended with its fetch time to
+ * memory-mapped segment files, and the whole log is replayed into the cache at startup. Entries
+ * older than the cache's expiry are skipped, later entries of the same key replace earlier ones.
+ * <p>
+ * Entries are queued and written by a single writer thread, so caching never waits for the disk.
+ * When the queue is full the entry is dropped and counted instead. Each segment holds records of
+ * <pre>
+ * length          int, written last so a torn record reads as the end of the segment
+ * fetchedAtMillis long
+ * entry           JSON of the key and the product
+ * </pre>
+ * A segment is deleted once all its entries have expired, or when there are more than
+ * {@code max-segments} of them.
+ */
+@Component
+public class ProductCacheStore {
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheStore.class);
+
+    private static final int MAGIC = 0x50524f44; // "PROD"
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 12;
+    private static final String SUFFIX = ".products";
+    private static final long POLL_MILLIS = 100;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final long expireAfterMillis;
+    private final ObjectMapper objectMapper;
+    private final DataProductTypeRegistry typeRegistry;
+    private final BlockingQueue<Pending> queue;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Only used by the writer thread once loading is done
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private int nextSequence;
+
+    private record Pending(ProductCacheKey key, CachedProduct cachedProduct) {
+    }
+
+    /**
+     * The stored form of an entry. The entity of a key is either one data product or a set of them.
+     */
+    private record StoredEntry(
+            String dataProduct,
+            String cacheKey,
+            DataProduct entity,
+            List<DataProduct> entities,
+            DataProduct product
+    ) {
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int position = HEADER_BYTES;
+        private long newestFetchedAtMillis = Long.MIN_VALUE;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    @Autowired
+    public ProductCacheStore(
+            @Value("${datamanager.product-cache.persistence.enabled:false}") boolean enabled,
+            @Value("${datamanager.product-cache.persistence.directory:product-cache}") String directory,
+            @Value("${datamanager.product-cache.persistence.segment-size-mb:64}") int segmentSizeMegabytes,
+            @Value("${datamanager.product-cache.persistence.max-segments:16}") int maxSegments,
+            @Value("${datamanager.product-cache.persistence.queue-capacity:65536}") int queueCapacity,
+            @Value("${datamanager.product-cache.expire-after-seconds:86400}") long expireAfterSeconds,
+            ObjectMapper objectMapper,
+            DataProductTypeRegistry typeRegistry
+    ) {
+        if (segmentSizeMegabytes <= 0 || segmentSizeMegabytes > 1024) {
+            throw new IllegalArgumentException("Product cache segment size must be from 1 to 1024 MB");
+        }
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentSizeMegabytes << 20;
+        this.maxSegments = Math.max(maxSegments, 1);
+        this.expireAfterMillis = TimeUnit.SECONDS.toMillis(expireAfterSeconds);
+        this.objectMapper = objectMapper;
+        this.typeRegistry = typeRegistry;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("product-cache-writer-");
+        threadFactory.setDaemon(true);
+        this.writer = threadFactory.newThread(this::write);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replays the stored entries that have not expired into the loader, oldest first, and starts
+     * the writer. Called once by the cache when it is created.
+     *
+     * @return the number of entries replayed
+     */
+    synchronized int load(BiConsumer<ProductCacheKey, CachedProduct> loader) {
+        if (!enabled || writer.isAlive()) {
+            return 0;
+        }
+        int loaded = 0;
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listed = Files.list(directory)) {
+                // The zero-padded sequence numbers sort the files in the order they were written
+                files = listed.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+            }
+            long oldest = System.currentTimeMillis() - expireAfterMillis;
+            for (Path file : files) {
+                // Older segments may have been deleted, so the count of files is not the next sequence number
+                nextSequence = Math.max(nextSequence, sequence(file) + 1);
+                Segment segment = open(file);
+                if (segment == null) {
+                    continue;
+                }
+                loaded += replay(segment, oldest, loader);
+                segments.addLast(segment);
+            }
+            deleteExpired();
+        } catch (IOException e) {
+            logger.error("Failed to load the product cache from {}: {}", directory, e.getMessage());
+        }
+        writer.start();
+        logger.info("Loaded {} cached products from {}", loaded, directory);
+        return loaded;
+    }
+
+    private static int sequence(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Segment open(Path file) {
+        try {
+            Segment segment = new Segment(file, map(file, StandardOpenOption.READ));
+            if (segment.buffer.capacity() < HEADER_BYTES || segment.buffer.getInt(0) != MAGIC) {
+                logger.error("Skipping {}, it is not a product cache segment", file);
+                return null;
+            }
+            return segment;
+        } catch (IOException e) {
+            logger.error("Skipping product cache segment {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private int replay(Segment segment, long oldest, BiConsumer<ProductCacheKey, CachedProduct> loader) {
+        MappedByteBuffer buffer = segment.buffer;
+        int loaded = 0;
+        while (segment.position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(segment.position);
+            if (length <= 0 || segment.position + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            long fetchedAtMillis = buffer.getLong(segment.position + 4);
+            int offset = segment.position + RECORD_HEADER_BYTES;
+            segment.position = offset + length;
+            segment.newestFetchedAtMillis = Math.max(segment.newestFetchedAtMillis, fetchedAtMillis);
+            if (fetchedAtMillis < oldest) {
+                continue;
+            }
+            byte[] json = new byte[length];
+            buffer.get(offset, json);
+            try {
+                StoredEntry entry = objectMapper.readValue(json, StoredEntry.class);
+                loader.accept(key(entry), new CachedProduct(entry.product(), fetchedAtMillis));
+                loaded++;
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                // Data products that no longer exist or changed shape are fetched again
+                logger.debug("Skipping stored product in {}: {}", segment.file, e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    private ProductCacheKey key(StoredEntry entry) throws ClassNotFoundException {
+        DataProductTypeRegistry.Registration registration = typeRegistry.find(entry.dataProduct());
+        if (registration == null) {
+            throw new ClassNotFoundException(entry.dataProduct() + " is not a known data product");
+        }
+        Object entity = entry.entity() != null ? entry.entity() : Set.copyOf(entry.entities());
+        return new ProductCacheKey(registration.type(), entity, entry.cacheKey());
+    }
+
+    /**
+     * Queues an entry to be written. Entries whose entity is neither a data product nor a set of
+     * them cannot be restored and are not stored.
+     */
+    void append(ProductCacheKey key, CachedProduct cachedProduct) {
+        if (!enabled || !(key.entity() instanceof DataProduct || key.entity() instanceof Set<?>)) {
+            return;
+        }
+        if (!queue.offer(new Pending(key, cachedProduct))) {
+            dropped.increment();
+        }
+    }
+
+    private void write() {
+        while (running || !queue.isEmpty()) {
+            Pending pending;
+            try {
+                pending = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (pending == null) {
+                continue;
+            }
+            try {
+                write(pending);
+                written.increment();
+            } catch (IOException | RuntimeException e) {
+                dropped.increment();
+                logger.error("Failed to store cached product {}: {}", pending.key().dataProduct().getName(), e.getMessage());
+            }
+        }
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    private void write(Pending pending) throws IOException {
+        ProductCacheKey key = pending.key();
+        DataProduct entity = key.entity() instanceof DataProduct dataProduct ? dataProduct : null;
+        List<DataProduct> entities = entity == null ? ((Set<?>) key.entity()).stream().map(DataProduct.class::cast).toList() : null;
+        byte[] json = objectMapper.writeValueAsBytes(new StoredEntry(
+                key.dataProduct().getName(), key.cacheKey(), entity, entities, pending.cachedProduct().dataProduct()));
+        if (HEADER_BYTES + RECORD_HEADER_BYTES + json.length > segmentBytes) {
+            throw new IOException("Entry of " + json.length + " bytes does not fit a segment");
+        }
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.position + RECORD_HEADER_BYTES + json.length > tail.buffer.capacity()) {
+            if (tail != null) {
+                tail.buffer.force();
+            }
+            tail = create();
+            segments.addLast(tail);
+            deleteExpired();
+        }
+        int offset = tail.position;
+        long fetchedAtMillis = pending.cachedProduct().fetchedAtMillis();
+        tail.buffer.putLong(offset + 4, fetchedAtMillis);
+        tail.buffer.put(offset + RECORD_HEADER_BYTES, json);
+        tail.buffer.putInt(offset, json.length);
+        tail.position = offset + RECORD_HEADER_BYTES + json.length;
+        tail.newestFetchedAtMillis = Math.max(tail.newestFetchedAtMillis, fetchedAtMillis);
+    }
+
+    private Segment create() throws IOException {
+        Path file = directory.resolve(String.format("%010d%s", nextSequence++, SUFFIX));
+        Segment segment = new Segment(file, map(file, StandardOpenOption.CREATE_NEW));
+        segment.buffer.putInt(0, MAGIC);
+        return segment;
+    }
+
+    private MappedByteBuffer map(Path file, StandardOpenOption mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, mode, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed. A new file grows to the segment size
+            long size = mode == StandardOpenOption.CREATE_NEW ? segmentBytes : channel.size();
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // The tail segment is never deleted, it is still being written
+    private void deleteExpired() {
+        long oldest = System.currentTimeMillis() - expireAfterMillis;
+        while (segments.size() > 1 && (segments.size() > maxSegments || segments.peekFirst().newestFetchedAtMillis < oldest)) {
+            Segment segment = segments.removeFirst();
+            try {
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                logger.error("Failed to delete product cache segment {}: {}", segment.file, e.getMessage());
+            }
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // Queued entries are written and every segment is flushed to disk before the application stops
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
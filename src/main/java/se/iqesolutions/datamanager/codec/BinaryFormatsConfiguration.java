@@ -0,0 +1,39 @@
+// File: src/main/java/se/iqesolutions/datamanager/codec/BinaryFormatsConfiguration.java
+
+package se.iqesolutions.datamanager.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) encodings of
+ * requests and responses, chosen by the Content-Type and Accept headers. JSON stays the default.
+ * Both use data product aliases instead of class names, see {@link CompactTypesModule}.
+ */
+@Configuration
+public class BinaryFormatsConfiguration {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(compactMapper(builder, new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(compactMapper(builder, new SmileFactory()));
+    }
+
+    // The builder is a fresh copy per injection point, carrying the application's Jackson settings
+    private static ObjectMapper compactMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        return builder.factory(factory)
+                .postConfigurer(mapper -> mapper.registerModule(new CompactTypesModule()))
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+// File: src/main/java/se/iqesolutions/datamanager/codec/CompactTypesModule.java
+
+package se.iqesolutions.datamanager.codec;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import se.iqesolutions.datamanager.DataManagerBatchRequest;
+import se.iqesolutions.datamanager.DataManagerBatchResponse;
+import se.iqesolutions.datamanager.DataManagerRequest;
+import se.iqesolutions.datamanager.DataManagerResponse;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.DataProductTypeIdResolver;
+import se.iqesolutions.datamanager.product.DataProductTypeRegistry;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Replaces the fully qualified class names of data products with their aliases, both in
+ * the {@code @type} property of every data product and in the keys of the requested and failed
+ * data products. Installed on the binary formats only, JSON keeps the class names.
+ */
+public class CompactTypesModule extends SimpleModule {
+    private static final long serialVersionUID = 1L;
+
+    public CompactTypesModule() {
+        super("CompactTypesModule");
+        setMixInAnnotation(DataProduct.class, DataProductMixin.class);
+        setMixInAnnotation(DataManagerRequest.class, RequestMixin.class);
+        setMixInAnnotation(DataManagerBatchRequest.class, RequestMixin.class);
+        setMixInAnnotation(DataManagerResponse.class, ResponseMixin.class);
+        setMixInAnnotation(DataManagerBatchResponse.EntityResult.class, ResponseMixin.class);
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CUSTOM, property = "@type")
+    @JsonTypeIdResolver(AliasTypeIdResolver.class)
+    private interface DataProductMixin {
+    }
+
+    /**
+     * Writes the aliases of the data products, reading aliases and class names alike.
+     */
+    public static class AliasTypeIdResolver extends DataProductTypeIdResolver {
+
+        public AliasTypeIdResolver(DataProductTypeRegistry registry) {
+            super(registry);
+        }
+
+        @Override
+        protected String idOf(DataProductTypeRegistry.Registration registration) {
+            return registration.alias();
+        }
+    }
+
+    private abstract static class RequestMixin {
+        @JsonSerialize(keyUsing = ShortNameKeySerializer.class)
+        @JsonDeserialize(keyUsing = ShortNameKeyDeserializer.class)
+        abstract Map<String, DataProductConstraint> requestedDataProducts();
+    }
+
+    private abstract static class ResponseMixin {
+        @JsonSerialize(keyUsing = ShortNameKeySerializer.class)
+        @JsonDeserialize(keyUsing = ShortNameKeyDeserializer.class)
+        abstract Map<String, String> failedDataProducts();
+    }
+
+    /**
+     * Created by Spring's handler instantiator, which injects the data product type registry.
+     */
+    public static class ShortNameKeySerializer extends JsonSerializer<String> {
+        private final DataProductTypeRegistry registry;
+
+        public ShortNameKeySerializer(DataProductTypeRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void serialize(String className, JsonGenerator generator, SerializerProvider serializers) throws IOException {
+            generator.writeFieldName(registry.shorten(className));
+        }
+    }
+
+    public static class ShortNameKeyDeserializer extends KeyDeserializer {
+        private final DataProductTypeRegistry registry;
+
+        public ShortNameKeyDeserializer(DataProductTypeRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public Object deserializeKey(String alias, DeserializationContext context) {
+            return registry.expand(alias);
+        }
+    }
+}
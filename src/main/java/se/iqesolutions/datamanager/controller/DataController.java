@@ -8,9 +8,27 @@ import jakarta.validation.Valid;
 import se.iqesolutions.datamanager.*;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import se.iqesolutions.datamanager.engine.CircuitBreakers;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+import se.iqesolutions.datamanager.product.impl.StockScore;
 import se.iqesolutions.datamanager.service.DataManagerService;
+import se.iqesolutions.datamanager.subscription.ConflatingSubscriber;
+import se.iqesolutions.datamanager.subscription.PriceSubscriptions;
+import se.iqesolutions.datamanager.ticks.TickHistory;
+import se.iqesolutions.datamanager.ticks.TickStore;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/data")
@@ -19,6 +37,18 @@ public class DataController {
     @Autowired
     private DataManagerService dataManagerService;
 
+    @Autowired
+    private CircuitBreakers circuitBreakers;
+
+    @Autowired
+    private PriceSubscriptions priceSubscriptions;
+
+    @Autowired
+    private TickStore tickStore;
+
+    @Value("${datamanager.subscriptions.timeout-ms:0}")
+    private long subscriptionTimeoutMillis;
+
     @PostMapping("/collect")
     @Operation(
             summary = "Collect Data",
@@ -28,7 +58,118 @@ public class DataController {
                     @ApiResponse(responseCode = "400", description = "Invalid input data")
             }
     )
-    public DataManagerResponse collectData(@Valid @RequestBody DataManagerRequest request) {
-        return dataManagerService.collectDataProducts(request);
+    public CompletableFuture<DataManagerResponse> collectData(@Valid @RequestBody DataManagerRequest request) {
+        // The request thread is released while providers are collecting
+        return dataManagerService.collectDataProductsAsync(request);
+    }
+
+    @PostMapping(value = "/collect/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Collect Data as a Stream",
+            description = "Collect data products like /collect, writing each collected or failed data product as a line of "
+                    + "newline-delimited JSON as soon as it is resolved, followed by a summary line",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successful operation"),
+                    @ApiResponse(responseCode = "400", description = "Invalid input data")
+            }
+    )
+    public ResponseEntity<ResponseBodyEmitter> collectDataStream(@Valid @RequestBody DataManagerRequest request) {
+        NdjsonCollection collection = new NdjsonCollection();
+        dataManagerService.collectDataProductsAsync(request, collection).whenComplete(collection::complete);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(collection.getEmitter());
+    }
+
+    @PostMapping("/collect/batch")
+    @Operation(
+            summary = "Collect Data for Many Entities",
+            description = "Collect the same data products for every entity in the request, planning once for the whole batch",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successful operation"),
+                    @ApiResponse(responseCode = "400", description = "Invalid input data")
+            }
+    )
+    public CompletableFuture<DataManagerBatchResponse> collectDataBatch(@Valid @RequestBody DataManagerBatchRequest request) {
+        return dataManagerService.collectDataProductsAsync(request);
+    }
+
+    @GetMapping(value = "/subscribe/prices", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Subscribe to Share Prices",
+            description = "Server-Sent Events with the latest RealTimeSharePrice of each ticker as it is polled. "
+                    + "A client reading slower than prices arrive skips to the latest price of each ticker",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successful operation"),
+                    @ApiResponse(responseCode = "400", description = "No tickers, too many tickers or an invalid ticker given")
+            }
+    )
+    public SseEmitter subscribePrices(@RequestParam List<String> tickers) {
+        return subscribe(tickers, RealTimeSharePrice.class, "price");
+    }
+
+    @GetMapping(value = "/subscribe/scores", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Subscribe to Stock Scores",
+            description = "Server-Sent Events with the StockScore of each ticker, recomputed from every polled share price "
+                    + "without collecting its other inputs again",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successful operation"),
+                    @ApiResponse(responseCode = "400", description = "No tickers, too many tickers or an invalid ticker given")
+            }
+    )
+    public SseEmitter subscribeScores(@RequestParam List<String> tickers) {
+        return subscribe(tickers, StockScore.class, "score");
+    }
+
+    private SseEmitter subscribe(List<String> tickers, Class<? extends DataProduct> dataProduct, String eventName) {
+        SseEmitter emitter = new SseEmitter(subscriptionTimeoutMillis);
+        ConflatingSubscriber subscriber;
+        try {
+            subscriber = priceSubscriptions.subscribe(
+                    tickers.stream().map(String::trim).filter(ticker -> !ticker.isEmpty()).toList(),
+                    dataProduct,
+                    update -> emitter.send(SseEmitter.event()
+                            .name(eventName)
+                            .data(update, MediaType.APPLICATION_JSON)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        emitter.onCompletion(() -> priceSubscriptions.unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        // A disconnected client is completed rather than written to again
+        emitter.onError(throwable -> {
+            priceSubscriptions.unsubscribe(subscriber);
+            emitter.complete();
+        });
+        return emitter;
+    }
+
+    @GetMapping("/ticks/{tickerSymbol}")
+    @Operation(
+            summary = "Share Price History",
+            description = "Stored RealTimeSharePrice ticks of a ticker between from and to, both inclusive epoch milliseconds, "
+                    + "oldest first and at most limit of them",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successful operation")
+            }
+    )
+    public TickHistory getTicks(
+            @PathVariable String tickerSymbol,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        return tickStore.query(tickerSymbol, from, to != null ? to : Long.MAX_VALUE, limit);
+    }
+
+    @GetMapping("/circuit-breakers")
+    @Operation(
+            summary = "Circuit Breaker States",
+            description = "State of the circuit breaker of every provider and data product that has been called",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successful operation")
+            }
+    )
+    public List<CircuitBreakers.Status> getCircuitBreakers() {
+        return circuitBreakers.getStatuses();
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+// File: src/main/java/se/iqesolutions/datamanager/controller/NdjsonCollection.java
+
+package se.iqesolutions.datamanager.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import se.iqesolutions.datamanager.DataManagerResponse;
+import se.iqesolutions.datamanager.DataManagerStreamRecord;
+import se.iqesolutions.datamanager.engine.ExecutionListener;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.io.IOException;
+
+/**
+ * Writes a collection as newline-delimited JSON, one {@link DataManagerStreamRecord} per line,
+ * flushing each line as soon as its data product is resolved.
+ */
+class NdjsonCollection implements ExecutionListener {
+    private static final Logger logger = LoggerFactory.getLogger(NdjsonCollection.class);
+
+    private final ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+    private final long startedAt = System.nanoTime();
+    private volatile boolean closed;
+
+    ResponseBodyEmitter getEmitter() {
+        return emitter;
+    }
+
+    @Override
+    public void collected(int entity, DataProduct dataProduct) {
+        write(new DataManagerStreamRecord.Collected(dataProduct));
+    }
+
+    @Override
+    public void failed(int entity, String dataProduct, String reason) {
+        write(new DataManagerStreamRecord.Failed(dataProduct, reason));
+    }
+
+    void complete(DataManagerResponse response, Throwable throwable) {
+        if (throwable != null) {
+            emitter.completeWithError(throwable);
+            return;
+        }
+        write(new DataManagerStreamRecord.Summary(
+                response.collectedDataProducts().size(),
+                response.failedDataProducts().size(),
+                (System.nanoTime() - startedAt) / 1_000_000));
+        emitter.complete();
+    }
+
+    // Provider threads write concurrently, a line and its newline must not be interleaved with another
+    private void write(DataManagerStreamRecord record) {
+        if (closed) {
+            return;
+        }
+        synchronized (emitter) {
+            try {
+                emitter.send(record, MediaType.APPLICATION_JSON);
+                emitter.send("\n", MediaType.TEXT_PLAIN);
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, the collection still completes for the caches and statistics
+                logger.info("Streaming client disconnected: {}", e.getMessage());
+                closed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/CircuitBreakers.java
+
+package se.iqesolutions.datamanager.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.provider.ProviderBinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A circuit breaker per provider and data product. A breaker opens when too many of the recent
+ * calls failed, rejects calls while open, and after a cool-down lets a limited number of trial
+ * calls through to decide whether to close again.
+ */
+@Component
+public class CircuitBreakers {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakers.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Current state of one breaker, as reported by the circuit breaker endpoint.
+     */
+    public record Status(String provider, String dataProduct, State state, int recentCalls, int recentFailures) {
+    }
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int trialCalls;
+    private final Map<ProviderBinding, Breaker> breakers = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean anyOpen;
+
+    public CircuitBreakers(
+            @Value("${datamanager.circuit-breaker.enabled:true}") boolean enabled,
+            @Value("${datamanager.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${datamanager.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${datamanager.circuit-breaker.failure-rate-threshold:50}") double failureRateThreshold,
+            @Value("${datamanager.circuit-breaker.open-duration-ms:30000}") long openMillis,
+            @Value("${datamanager.circuit-breaker.trial-calls:3}") int trialCalls
+    ) {
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openMillis * 1_000_000;
+        this.trialCalls = trialCalls;
+    }
+
+    private final class Breaker {
+        private final ProviderBinding binding;
+        // Outcomes of the most recent calls while closed, true for a failure
+        private final boolean[] outcomes = new boolean[windowSize];
+        private int calls;
+        private int next;
+        private int failures;
+        private State state = State.CLOSED;
+        private long openedAt;
+        private int trialsStarted;
+        private int trialsSucceeded;
+
+        private Breaker(ProviderBinding binding) {
+            this.binding = binding;
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (!coolDown()) {
+                return false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialsStarted >= trialCalls) {
+                    return false;
+                }
+                trialsStarted++;
+            }
+            return true;
+        }
+
+        private synchronized void onSuccess() {
+            if (state == State.HALF_OPEN) {
+                if (++trialsSucceeded >= trialCalls) {
+                    transition(State.CLOSED);
+                }
+                return;
+            }
+            record(false);
+        }
+
+        private synchronized void onFailure() {
+            if (state == State.HALF_OPEN) {
+                transition(State.OPEN);
+                return;
+            }
+            record(true);
+            if (state == State.CLOSED && calls >= minimumCalls && failures * 100.0 / calls >= failureRateThreshold) {
+                transition(State.OPEN);
+            }
+        }
+
+        // A cancelled trial call hands its slot to the next caller
+        private synchronized void onCancelled() {
+            if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+                trialsStarted--;
+            }
+        }
+
+        // Moves an open breaker to half-open once its cool-down has passed, returns false while still open
+        private synchronized boolean coolDown() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+            }
+            return true;
+        }
+
+        private void record(boolean failure) {
+            if (calls == windowSize && outcomes[next]) {
+                failures--;
+            }
+            outcomes[next] = failure;
+            next = (next + 1) % windowSize;
+            calls = Math.min(calls + 1, windowSize);
+            if (failure) {
+                failures++;
+            }
+        }
+
+        private void transition(State target) {
+            logger.warn("Circuit breaker for provider {} and data product {} is {}",
+                    binding.providerName(), binding.dataProduct().getName(), target);
+            state = target;
+            calls = 0;
+            next = 0;
+            failures = 0;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+            if (target == State.OPEN) {
+                openedAt = System.nanoTime();
+                anyOpen = true;
+            }
+            version.incrementAndGet();
+        }
+
+        private synchronized Status status() {
+            return new Status(binding.providerName(), binding.dataProduct().getName(), state, calls, failures);
+        }
+    }
+
+    private Breaker breaker(ProviderBinding binding) {
+        return breakers.computeIfAbsent(binding, Breaker::new);
+    }
+
+    /**
+     * Returns whether a call to the provider may be made now. Every permitted call must be followed
+     * by exactly one of {@link #onSuccess}, {@link #onFailure} or {@link #onCancelled}.
+     */
+    public boolean tryAcquire(ProviderBinding binding) {
+        return !enabled || breaker(binding).tryAcquire();
+    }
+
+    public void onSuccess(ProviderBinding binding) {
+        if (enabled) {
+            breaker(binding).onSuccess();
+        }
+    }
+
+    public void onFailure(ProviderBinding binding) {
+        if (enabled) {
+            breaker(binding).onFailure();
+        }
+    }
+
+    public void onCancelled(ProviderBinding binding) {
+        if (enabled) {
+            breaker(binding).onCancelled();
+        }
+    }
+
+    /**
+     * Returns whether the breaker currently rejects calls, without starting a trial. Planning uses
+     * this to leave open providers out of the ranking.
+     */
+    public boolean isOpen(ProviderBinding binding) {
+        Breaker breaker = enabled ? breakers.get(binding) : null;
+        return breaker != null && !breaker.coolDown();
+    }
+
+    /**
+     * Changes whenever a breaker changes state, so plans ranked before the change can be rebuilt.
+     * Open breakers whose cool-down has passed move to half-open here, so a provider left out of
+     * cached plans gets its trial calls.
+     */
+    public long getVersion() {
+        if (anyOpen) {
+            // Cleared first so a breaker opening during the scan is not forgotten
+            anyOpen = false;
+            for (Breaker breaker : breakers.values()) {
+                if (!breaker.coolDown()) {
+                    anyOpen = true;
+                }
+            }
+        }
+        return version.get();
+    }
+
+    public List<Status> getStatuses() {
+        List<Status> statuses = new ArrayList<>(breakers.size());
+        for (Breaker breaker : breakers.values()) {
+            statuses.add(breaker.status());
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,18 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/CollectedProductSink.java
+
+package se.iqesolutions.datamanager.engine;
+
+import se.iqesolutions.datamanager.product.DataProduct;
+
+/**
+ * Receives every data product freshly collected from a provider, across all executions. Products
+ * served from the cache or already available in the request are not passed on. Called on the
+ * thread completing the provider call, so implementations must not block.
+ */
+public interface CollectedProductSink {
+
+    CollectedProductSink NONE = dataProduct -> {
+    };
+
+    void collected(DataProduct dataProduct);
+}
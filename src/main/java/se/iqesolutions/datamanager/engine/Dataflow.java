@@ -0,0 +1,132 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/Dataflow.java
+
+package se.iqesolutions.datamanager.engine;
+
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The collected data products of one entity together with the dependency edges between them,
+ * kept so that a changed input only recomputes the products derived from it. The derived
+ * products are planned with every other product already available, so the providers of
+ * unaffected products such as earnings or country are not called again.
+ * <p>
+ * Updates are applied one at a time in the order they were made.
+ */
+public class Dataflow {
+
+    private final ExecutionPlanner planner;
+    private final ExecutionEngine engine;
+    private final Map<Class<? extends DataProduct>, DataProductConstraint> constraints;
+    // Data products that are derived, directly or not, from each data product
+    private final Map<Class<? extends DataProduct>, Set<Class<? extends DataProduct>>> dependents = new HashMap<>();
+    private final Map<Class<? extends DataProduct>, DataProduct> values = new LinkedHashMap<>();
+    private final Map<String, String> failedDataProducts;
+    private CompletableFuture<?> lastUpdate = CompletableFuture.completedFuture(null);
+
+    /**
+     * @param requestedDataProducts the data products the flow was collected for and their constraints
+     * @param plan                  the plan the entity was collected with, providing the dependency edges
+     * @param result                the outcome of that collection
+     */
+    public Dataflow(
+            ExecutionPlanner planner,
+            ExecutionEngine engine,
+            Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts,
+            ExecutionPlan plan,
+            ExecutionResult result
+    ) {
+        this.planner = planner;
+        this.engine = engine;
+        this.constraints = new HashMap<>(requestedDataProducts);
+        for (ExecutionPlan.Node node : plan.nodes().values()) {
+            for (ExecutionPlan.Candidate candidate : node.candidates()) {
+                for (ExecutionPlan.Node dependency : candidate.dependencies()) {
+                    dependents.computeIfAbsent(dependency.dataProduct(), key -> new HashSet<>()).add(node.dataProduct());
+                }
+            }
+        }
+        for (DataProduct dataProduct : result.collectedDataProducts()) {
+            values.put(dataProduct.getClass(), dataProduct);
+        }
+        this.failedDataProducts = Map.copyOf(result.failedDataProducts());
+    }
+
+    /**
+     * @return the data products that failed when the flow was collected, by class name, with the reason
+     */
+    public Map<String, String> getFailedDataProducts() {
+        return failedDataProducts;
+    }
+
+    public synchronized DataProduct getValue(Class<? extends DataProduct> dataProduct) {
+        return values.get(dataProduct);
+    }
+
+    /**
+     * Replaces an input and recomputes the data products derived from it.
+     *
+     * @return the recomputed data products, and those that could not be recomputed. A product
+     * that failed keeps its previous value.
+     */
+    public CompletableFuture<ExecutionResult> update(DataProduct input) {
+        synchronized (this) {
+            CompletableFuture<ExecutionResult> update = lastUpdate
+                    .handle((ignored, throwable) -> null)
+                    .thenCompose(ignored -> recompute(input));
+            lastUpdate = update;
+            return update;
+        }
+    }
+
+    private CompletableFuture<ExecutionResult> recompute(DataProduct input) {
+        Set<Class<? extends DataProduct>> affected = downstream(input.getClass());
+        Map<Class<? extends DataProduct>, DataProductConstraint> requested = new LinkedHashMap<>();
+        List<DataProduct> available = new ArrayList<>();
+        synchronized (this) {
+            values.put(input.getClass(), input);
+            if (affected.isEmpty()) {
+                return CompletableFuture.completedFuture(new ExecutionResult(List.of(), Map.of()));
+            }
+            for (Class<? extends DataProduct> dataProduct : affected) {
+                requested.put(dataProduct, constraints.get(dataProduct));
+            }
+            for (DataProduct value : values.values()) {
+                if (!affected.contains(value.getClass())) {
+                    available.add(value);
+                }
+            }
+        }
+
+        Set<Class<? extends DataProduct>> availableClasses = new HashSet<>();
+        available.forEach(dataProduct -> availableClasses.add(dataProduct.getClass()));
+        ExecutionPlan plan = planner.plan(requested, availableClasses);
+        return engine.execute(plan, available).thenApply(result -> {
+            List<DataProduct> recomputed = new ArrayList<>();
+            synchronized (this) {
+                for (DataProduct dataProduct : result.collectedDataProducts()) {
+                    if (affected.contains(dataProduct.getClass())) {
+                        values.put(dataProduct.getClass(), dataProduct);
+                        recomputed.add(dataProduct);
+                    }
+                }
+            }
+            return new ExecutionResult(recomputed, result.failedDataProducts());
+        });
+    }
+
+    private Set<Class<? extends DataProduct>> downstream(Class<? extends DataProduct> input) {
+        Set<Class<? extends DataProduct>> affected = new LinkedHashSet<>();
+        Deque<Class<? extends DataProduct>> pending = new ArrayDeque<>(dependents.getOrDefault(input, Set.of()));
+        while (!pending.isEmpty()) {
+            Class<? extends DataProduct> dataProduct = pending.poll();
+            if (affected.add(dataProduct)) {
+                pending.addAll(dependents.getOrDefault(dataProduct, Set.of()));
+            }
+        }
+        return affected;
+    }
+}
@@ -0,0 +1,696 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/Execution.java
+
+package se.iqesolutions.datamanager.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.iqesolutions.datamanager.cache.CachedProduct;
+import se.iqesolutions.datamanager.cache.ProductCacheKey;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.DataProductTypeRegistry;
+import se.iqesolutions.datamanager.provider.BatchDataProvider;
+import se.iqesolutions.datamanager.provider.BatchItemResult;
+import se.iqesolutions.datamanager.provider.Capability;
+import se.iqesolutions.datamanager.provider.DataProvider;
+import se.iqesolutions.datamanager.provider.ProviderBinding;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * State of a single execution over one or more entities. Collected data products are kept per
+ * entity, except for shared nodes which are resolved once for the whole execution. Each node is
+ * resolved at most once per scope; its future completes with the collected data product, or with
+ * {@code null} when the node failed.
+ * <p>
+ * A requested data product with a {@code maxTime} must be collected within that many seconds of
+ * the start of the execution, and its dependencies within the most lenient {@code maxTime} of the
+ * request. Products still outstanding at their deadline are reported as failed.
+ * <p>
+ * Each entity's data products are also reported to the {@link ExecutionListener} as they resolve.
+ */
+class Execution {
+    private static final Logger logger = LoggerFactory.getLogger(Execution.class);
+
+    static final String DEADLINE_REASON = "Deadline exceeded before the data product was collected";
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final ExecutionEngine engine;
+    private final Executor executor;
+    private final ExecutionListener listener;
+
+    private final Scope sharedScope;
+    private final List<Scope> entityScopes;
+    private final Map<ProviderBinding, PendingBatch> pendingBatches = new IdentityHashMap<>();
+    // Shared nodes have no plan of their own, so they are cached under the strictest constraint of any plan
+    private final Map<Class<? extends DataProduct>, DataProductConstraint> sharedCacheConstraints = new HashMap<>();
+    private final long startedAt = System.nanoTime();
+    private final long requestDeadline;
+
+    /**
+     * Identifies a provider call by its inputs. Concurrent calls with equal keys are coalesced.
+     */
+    record InvocationKey(DataProvider provider, Class<? extends DataProduct> dataProduct, List<DataProduct> inputs) {
+    }
+
+    /**
+     * @param plans    the plan of each entity, in the same order as {@code entities}
+     * @param entities the already available data products of each entity
+     */
+    Execution(ExecutionEngine engine, List<ExecutionPlan> plans, List<List<DataProduct>> entities, ExecutionListener listener) {
+        this.engine = engine;
+        this.executor = engine.executor;
+        this.listener = listener;
+
+        this.sharedScope = new Scope(-1, null, List.of());
+        this.entityScopes = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            entityScopes.add(new Scope(i, plans.get(i), entities.get(i)));
+        }
+        this.requestDeadline = requestDeadline(plans);
+        for (ExecutionPlan plan : plans) {
+            plan.cacheConstraints().forEach((dataProduct, constraint) ->
+                    sharedCacheConstraints.merge(dataProduct, constraint, (current, other) ->
+                            other.maxCacheAgeSeconds() < current.maxCacheAgeSeconds() ? other : current));
+        }
+    }
+
+    CompletableFuture<List<ExecutionResult>> run() {
+        List<CompletableFuture<ExecutionResult>> results = new ArrayList<>(entityScopes.size());
+        for (Scope scope : entityScopes) {
+            results.add(scope.run());
+        }
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    // A product requested without a time limit leaves the request open
+    private long requestDeadline(List<ExecutionPlan> plans) {
+        double maxTime = 0;
+        for (ExecutionPlan plan : plans) {
+            for (ExecutionPlan.Node node : plan.requestedNodes()) {
+                if (node.constraint() == null || node.constraint().maxTime() <= 0) {
+                    return NO_DEADLINE;
+                }
+                maxTime = Math.max(maxTime, node.constraint().maxTime());
+            }
+        }
+        return maxTime > 0 ? deadlineAfter(maxTime) : NO_DEADLINE;
+    }
+
+    // Only requested nodes carry a constraint, dependencies are bounded by the request as a whole
+    private long deadline(ExecutionPlan.Node node) {
+        DataProductConstraint constraint = node.constraint();
+        if (constraint != null && constraint.maxTime() > 0) {
+            return deadlineAfter(constraint.maxTime());
+        }
+        return requestDeadline;
+    }
+
+    private long deadlineAfter(double seconds) {
+        return startedAt + (long) Math.min(seconds * 1_000_000_000L, Long.MAX_VALUE / 2.0);
+    }
+
+    private static long remainingMillis(long deadline) {
+        if (deadline == NO_DEADLINE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * Collected and failed data products of one entity, or of the shared nodes.
+     */
+    private final class Scope {
+        // Index of the entity, negative for the shared scope which is not reported to the listener
+        private final int index;
+        private final ExecutionPlan plan;
+        private final List<DataProduct> alreadyAvailableDataProducts;
+        private final Map<Class<? extends DataProduct>, DataProduct> collectedDataProductsMap = new ConcurrentHashMap<>();
+        private final List<DataProduct> collectedDataProducts = Collections.synchronizedList(new ArrayList<>());
+        private final Map<String, String> failedDataProducts = new ConcurrentHashMap<>();
+        private final Map<Class<? extends DataProduct>, CompletableFuture<DataProduct>> futures = new ConcurrentHashMap<>();
+
+        private Scope(int index, ExecutionPlan plan, List<DataProduct> alreadyAvailableDataProducts) {
+            this.index = index;
+            this.plan = plan;
+            this.alreadyAvailableDataProducts = alreadyAvailableDataProducts;
+
+            // Initialize with already available data products
+            for (DataProduct dataProduct : alreadyAvailableDataProducts) {
+                collectedDataProductsMap.put(dataProduct.getClass(), dataProduct);
+                collectedDataProducts.add(dataProduct);
+                logger.info("Already available data product: {}", dataProduct.getClass().getName());
+            }
+            if (plan != null) {
+                failedDataProducts.putAll(plan.planningFailures());
+            }
+        }
+
+        private CompletableFuture<ExecutionResult> run() {
+            alreadyAvailableDataProducts.forEach(dataProduct -> listener.collected(index, dataProduct));
+            failedDataProducts.forEach((className, reason) -> listener.failed(index, className, reason));
+
+            CompletableFuture<?>[] requested = plan.requestedNodes().stream()
+                    .map(node -> resolve(node, this))
+                    .toArray(CompletableFuture[]::new);
+
+            return CompletableFuture.allOf(requested).thenApply(ignored -> {
+                synchronized (collectedDataProducts) {
+                    return new ExecutionResult(new ArrayList<>(collectedDataProducts), new HashMap<>(failedDataProducts));
+                }
+            });
+        }
+
+        private void collected(ExecutionPlan.Node node, DataProduct dataProduct) {
+            collectedDataProductsMap.put(node.dataProduct(), dataProduct);
+            collectedDataProducts.add(dataProduct);
+            if (index >= 0) {
+                listener.collected(index, dataProduct);
+            }
+        }
+
+        private void failed(ExecutionPlan.Node node, String reason) {
+            String className = node.dataProduct().getName();
+            failedDataProducts.put(className, reason);
+            if (index >= 0) {
+                listener.failed(index, className, reason);
+            }
+        }
+
+        // The already available data product named by the cacheKey identifies the entity, otherwise all of them do
+        private Object entity(DataProductTypeRegistry.Registration cacheKey) {
+            if (cacheKey != null) {
+                for (DataProduct dataProduct : alreadyAvailableDataProducts) {
+                    if (dataProduct.getClass() == cacheKey.type()) {
+                        return dataProduct;
+                    }
+                }
+            }
+            return Set.copyOf(alreadyAvailableDataProducts);
+        }
+    }
+
+    private CompletableFuture<DataProduct> resolve(ExecutionPlan.Node node, Scope scope) {
+        CompletableFuture<DataProduct> future = new CompletableFuture<>();
+        CompletableFuture<DataProduct> existing = scope.futures.putIfAbsent(node.dataProduct(), future);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (node.available()) {
+            future.complete(scope.collectedDataProductsMap.get(node.dataProduct()));
+        } else if (node.failed()) {
+            // Failure was already recorded while planning
+            future.complete(null);
+        } else if (node.shared() && scope != sharedScope) {
+            resolveShared(node, scope, future);
+        } else {
+            long started = System.nanoTime();
+            future.whenComplete((dataProduct, throwable) ->
+                    engine.metrics.productResolved(node.dataProduct(), dataProduct != null, System.nanoTime() - started));
+            if (!resolveFromCache(node, scope, future)) {
+                enforceDeadline(node, scope, future);
+                attempt(node, scope, future);
+            }
+        }
+        return future;
+    }
+
+    // Completes the node as failed at its deadline, so the response is not held up by slow providers
+    private void enforceDeadline(ExecutionPlan.Node node, Scope scope, CompletableFuture<DataProduct> future) {
+        long deadline = deadline(node);
+        if (deadline == NO_DEADLINE) {
+            return;
+        }
+        CompletableFuture.delayedExecutor(remainingMillis(deadline), TimeUnit.MILLISECONDS)
+                .execute(() -> fail(node, scope, future, DEADLINE_REASON));
+    }
+
+    // A node is completed exactly once, whichever of its provider calls and its deadline comes first
+    private void succeed(ExecutionPlan.Node node, Scope scope, CompletableFuture<DataProduct> future, DataProduct dataProduct) {
+        synchronized (future) {
+            if (future.isDone()) {
+                return;
+            }
+            scope.collected(node, dataProduct);
+            future.complete(dataProduct);
+        }
+    }
+
+    private void fail(ExecutionPlan.Node node, Scope scope, CompletableFuture<DataProduct> future, String reason) {
+        synchronized (future) {
+            if (future.isDone()) {
+                return;
+            }
+            if (reason == DEADLINE_REASON) {
+                logger.error("Deadline exceeded while collecting data product {}", node.dataProduct().getName());
+            }
+            scope.failed(node, reason);
+            future.complete(null);
+        }
+    }
+
+    // Shared nodes are collected once and then handed to every entity that depends on them
+    private void resolveShared(ExecutionPlan.Node node, Scope scope, CompletableFuture<DataProduct> future) {
+        resolve(node, sharedScope).whenComplete((dataProduct, throwable) -> {
+            if (dataProduct != null) {
+                scope.collected(node, dataProduct);
+            } else {
+                scope.failed(node, sharedScope.failedDataProducts.getOrDefault(
+                        node.dataProduct().getName(), ExecutionPlanner.NO_PROVIDER_REASON));
+            }
+            future.complete(dataProduct);
+        });
+    }
+
+    private boolean resolveFromCache(ExecutionPlan.Node node, Scope scope, CompletableFuture<DataProduct> future) {
+        DataProductConstraint constraint = cacheConstraint(node, scope);
+        if (constraint == null || constraint.maxCacheAgeSeconds() <= 0) {
+            return false;
+        }
+        CachedProduct cachedProduct = engine.productCache.get(cacheKey(node, scope, constraint), constraint.maxCacheAgeSeconds());
+        if (cachedProduct == null) {
+            return false;
+        }
+        logger.info("Collected data product: {} from cache", node.dataProduct().getName());
+        scope.collected(node, cachedProduct.dataProduct());
+        future.complete(cachedProduct.dataProduct());
+        return true;
+    }
+
+    // Runs once per upstream call, however many callers were coalesced onto it or share its batch slot
+    private void fetched(ExecutionPlan.Node node, Scope scope, DataProduct dataProduct) {
+        store(node, scope, dataProduct);
+        engine.collectedProductSink.collected(dataProduct);
+    }
+
+    // Only products collected for a request with a constraint are cached, since only those carry a cacheKey and max age
+    private void store(ExecutionPlan.Node node, Scope scope, DataProduct dataProduct) {
+        DataProductConstraint constraint = cacheConstraint(node, scope);
+        if (constraint != null) {
+            engine.productCache.put(cacheKey(node, scope, constraint), new CachedProduct(dataProduct, System.currentTimeMillis()));
+        }
+    }
+
+    // Dependencies have no constraint of their own and are cached under the one of the product that needs them
+    private DataProductConstraint cacheConstraint(ExecutionPlan.Node node, Scope scope) {
+        Map<Class<? extends DataProduct>, DataProductConstraint> constraints =
+                scope.plan != null ? scope.plan.cacheConstraints() : sharedCacheConstraints;
+        return constraints.get(node.dataProduct());
+    }
+
+    // A cacheKey given by alias or by class name keys the same entry
+    private ProductCacheKey cacheKey(ExecutionPlan.Node node, Scope scope, DataProductConstraint constraint) {
+        String cacheKey = constraint.cacheKey();
+        DataProductTypeRegistry.Registration registration = engine.typeRegistry.find(cacheKey);
+        String className = registration != null ? registration.className() : cacheKey;
+        return new ProductCacheKey(node.dataProduct(), scope.entity(registration), className);
+    }
+
+    /**
+     * Provider attempts for one node in one scope. Candidates are started in rank order, one at a
+     * time, or overlapping when hedging starts the next candidate before the current one answered.
+     */
+    private final class Attempts {
+        private final ExecutionPlan.Node node;
+        private final Scope scope;
+        private final CompletableFuture<DataProduct> future;
+        private final long deadline;
+        private final List<CompletableFuture<DataProduct>> calls = new ArrayList<>();
+        private int nextCandidate;
+        private int running;
+
+        private Attempts(ExecutionPlan.Node node, Scope scope, CompletableFuture<DataProduct> future) {
+            this.node = node;
+            this.scope = scope;
+            this.future = future;
+            this.deadline = deadline(node);
+        }
+
+        private void started(CompletableFuture<DataProduct> call) {
+            synchronized (this) {
+                calls.add(call);
+            }
+            if (future.isDone()) {
+                call.cancel(true);
+            }
+        }
+
+        // The losing calls of a hedged attempt are no longer needed once one of them succeeded
+        private void cancelRemaining() {
+            List<CompletableFuture<DataProduct>> remaining;
+            synchronized (this) {
+                remaining = new ArrayList<>(calls);
+            }
+            remaining.forEach(call -> call.cancel(true));
+        }
+    }
+
+    private void attempt(ExecutionPlan.Node node, Scope scope, CompletableFuture<DataProduct> future) {
+        attempt(new Attempts(node, scope, future));
+    }
+
+    // Try the next candidate, falling back to the one after it on failure while time remains
+    private void attempt(Attempts attempts) {
+        ExecutionPlan.Node node = attempts.node;
+        Scope scope = attempts.scope;
+        CompletableFuture<DataProduct> future = attempts.future;
+        if (future.isDone()) {
+            return;
+        }
+        if (remainingMillis(attempts.deadline) == 0) {
+            fail(node, scope, future, DEADLINE_REASON);
+            return;
+        }
+
+        int index;
+        synchronized (attempts) {
+            if (attempts.nextCandidate >= node.candidates().size()) {
+                if (attempts.running > 0) {
+                    // A hedged call is still in flight and decides the outcome
+                    return;
+                }
+                index = -1;
+            } else {
+                index = attempts.nextCandidate++;
+                attempts.running++;
+            }
+        }
+        if (index < 0) {
+            fail(node, scope, future, ExecutionPlanner.NO_PROVIDER_REASON);
+            return;
+        }
+
+        ExecutionPlan.Candidate candidate = node.candidates().get(index);
+        // A provider that cannot serve this entity is skipped before any of its dependencies are collected
+        CompletableFuture<Boolean> dependencies = capable(node, candidate, scope)
+                ? resolveDependencies(candidate, scope)
+                : CompletableFuture.completedFuture(false);
+        dependencies
+                .thenCompose(satisfied -> {
+                    if (!satisfied || !capable(node, candidate, scope)) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    CompletableFuture<DataProduct> call = invoke(node, candidate, scope, timeoutMillis(candidate.binding(), attempts.deadline));
+                    attempts.started(call);
+                    hedge(attempts, candidate.binding(), call);
+                    return call;
+                })
+                .whenComplete((dataProduct, throwable) -> {
+                    if (dataProduct != null) {
+                        succeed(node, scope, future, dataProduct);
+                        attempts.cancelRemaining();
+                    }
+                    boolean fallback;
+                    synchronized (attempts) {
+                        attempts.running--;
+                        fallback = attempts.nextCandidate < node.candidates().size();
+                    }
+                    if (dataProduct == null) {
+                        if (fallback && !future.isDone()) {
+                            engine.metrics.fallback(node.dataProduct());
+                        }
+                        attempt(attempts);
+                    }
+                });
+    }
+
+    private boolean capable(ExecutionPlan.Node node, ExecutionPlan.Candidate candidate, Scope scope) {
+        ProviderBinding binding = candidate.binding();
+        Capability capability;
+        try {
+            capability = binding.provider().checkCapability(node.dataProduct(), scope.collectedDataProductsMap);
+        } catch (RuntimeException e) {
+            logger.warn("Capability check of provider {} failed: {}", binding.providerName(), e.getMessage());
+            return true;
+        }
+        if (capability != null && capability.isUnsupported()) {
+            logger.info("Provider {} cannot serve data product {}: {}", binding.providerName(), node.dataProduct().getName(), capability.reason());
+            return false;
+        }
+        return true;
+    }
+
+    // Starts the next candidate alongside a call that is slower than the provider usually is
+    private void hedge(Attempts attempts, ProviderBinding binding, CompletableFuture<DataProduct> call) {
+        if (!engine.hedgingEnabled || attempts.nextCandidate >= attempts.node.candidates().size()) {
+            return;
+        }
+        long delay = engine.providerStatistics.percentileMillis(binding, engine.hedgingPercentile, engine.hedgingMinSamples);
+        if (delay < 0) {
+            delay = (long) Math.ceil(binding.expectedTime() * 1000);
+        }
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            if (!call.isDone() && !attempts.future.isDone()) {
+                logger.info("Provider {} is slow to collect data product {}, hedging with the next provider",
+                        binding.providerName(), attempts.node.dataProduct().getName());
+                engine.metrics.hedge(attempts.node.dataProduct());
+                attempt(attempts);
+            }
+        });
+    }
+
+    // A provider overrunning its expected time by the configured factor is abandoned for the next candidate
+    private long timeoutMillis(ProviderBinding binding, long deadline) {
+        long remaining = remainingMillis(deadline);
+        if (engine.attemptTimeoutFactor <= 0 || binding.expectedTime() <= 0) {
+            return remaining;
+        }
+        long attempt = (long) Math.ceil(binding.expectedTime() * engine.attemptTimeoutFactor * 1000);
+        return Math.min(remaining, attempt);
+    }
+
+    private CompletableFuture<Boolean> resolveDependencies(ExecutionPlan.Candidate candidate, Scope scope) {
+        List<CompletableFuture<DataProduct>> dependencies = new ArrayList<>(candidate.dependencies().size());
+        for (ExecutionPlan.Node dependency : candidate.dependencies()) {
+            dependencies.add(resolve(dependency, scope));
+        }
+        return CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> dependencies.stream().allMatch(dependency -> dependency.join() != null));
+    }
+
+    private CompletableFuture<DataProduct> invoke(ExecutionPlan.Node node, ExecutionPlan.Candidate candidate, Scope scope, long timeoutMillis) {
+        CompletableFuture<DataProduct> result;
+        if (candidate.binding().provider() instanceof BatchDataProvider && entityScopes.size() > 1 && scope != sharedScope) {
+            result = enqueueBatch(node, candidate.binding(), scope);
+        } else if (engine.singleFlight == null) {
+            result = call(node, candidate, scope, timeoutMillis);
+        } else {
+            // Coalesced callers share the timeout of the caller that started the upstream call
+            InvocationKey key = invocationKey(node, candidate.binding(), scope);
+            result = engine.singleFlight.execute(key, () -> call(node, candidate, scope, timeoutMillis));
+        }
+        return timeoutMillis == Long.MAX_VALUE ? result : result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private InvocationKey invocationKey(ExecutionPlan.Node node, ProviderBinding binding, Scope scope) {
+        List<DataProduct> inputs = new ArrayList<>(binding.dependencies().size());
+        for (Class<? extends DataProduct> dependency : binding.dependencies()) {
+            inputs.add(scope.collectedDataProductsMap.get(dependency));
+        }
+        return new InvocationKey(binding.provider(), node.dataProduct(), inputs);
+    }
+
+    /**
+     * Entities waiting for the same batch-capable provider. Entities with identical inputs share
+     * one slot in the upstream call.
+     */
+    private final class PendingBatch {
+        private final ExecutionPlan.Node node;
+        private final ProviderBinding binding;
+        private final Map<InvocationKey, CompletableFuture<DataProduct>> results = new LinkedHashMap<>();
+        private final List<Map<Class<? extends DataProduct>, DataProduct>> inputs = new ArrayList<>();
+        // The scope of the entity that opened each slot, which its product is cached for
+        private final List<Scope> scopes = new ArrayList<>();
+        private int arrivals;
+
+        private PendingBatch(ExecutionPlan.Node node, ProviderBinding binding) {
+            this.node = node;
+            this.binding = binding;
+        }
+
+        private CompletableFuture<DataProduct> add(InvocationKey key, Scope scope) {
+            arrivals++;
+            CompletableFuture<DataProduct> result = results.get(key);
+            if (result == null) {
+                result = new CompletableFuture<>();
+                results.put(key, result);
+                inputs.add(scope.collectedDataProductsMap);
+                scopes.add(scope);
+            }
+            // Callers get their own view so cancelling one of them leaves the batch running
+            return result.copy();
+        }
+
+        private void call() {
+            String className = node.dataProduct().getName();
+            List<CompletableFuture<DataProduct>> futures = new ArrayList<>(results.values());
+            if (!permitted(binding, className)) {
+                futures.forEach(future -> future.complete(null));
+                return;
+            }
+            long started = System.nanoTime();
+            try {
+                List<BatchItemResult> items = ((BatchDataProvider) binding.provider())
+                        .collectDataProducts(node.dataProduct(), inputs, node.constraint());
+                int collected = 0;
+                for (int i = 0; i < futures.size(); i++) {
+                    BatchItemResult item = i < items.size() ? items.get(i) : null;
+                    if (item != null && item.dataProduct() != null) {
+                        collected++;
+                        fetched(node, scopes.get(i), item.dataProduct());
+                        futures.get(i).complete(item.dataProduct());
+                    } else {
+                        String reason = item != null ? item.failureReason() : "No result returned";
+                        logger.error("Failed to collect data product {} using provider {}: {}", className, binding.providerName(), reason);
+                        futures.get(i).complete(null);
+                    }
+                }
+                if (collected > 0) {
+                    succeeded(binding, System.nanoTime() - started);
+                } else {
+                    failed(binding, "failure", System.nanoTime() - started);
+                }
+                logger.info("Collected {} of {} data products {} in one batch using provider: {}",
+                        collected, futures.size(), className, binding.providerName());
+            } catch (Exception e) {
+                failed(binding, "failure", System.nanoTime() - started);
+                logger.error("Failed to collect data product {} for a batch of {} using provider {}: {}",
+                        className, futures.size(), binding.providerName(), e.getMessage());
+                futures.forEach(future -> future.complete(null));
+            }
+        }
+    }
+
+    // Batch-capable providers are called once for all entities that reach them within the linger time
+    private CompletableFuture<DataProduct> enqueueBatch(ExecutionPlan.Node node, ProviderBinding binding, Scope scope) {
+        InvocationKey key = invocationKey(node, binding, scope);
+        PendingBatch ready = null;
+        CompletableFuture<DataProduct> result;
+        synchronized (pendingBatches) {
+            PendingBatch batch = pendingBatches.get(binding);
+            if (batch == null) {
+                batch = new PendingBatch(node, binding);
+                pendingBatches.put(binding, batch);
+                PendingBatch scheduled = batch;
+                CompletableFuture.delayedExecutor(engine.batchLingerMillis, TimeUnit.MILLISECONDS, executor)
+                        .execute(() -> flush(scheduled));
+            }
+            result = batch.add(key, scope);
+            // No need to wait once every entity has arrived
+            if (batch.arrivals >= entityScopes.size() || batch.results.size() >= engine.batchMaxSize) {
+                ready = batch;
+            }
+        }
+        if (ready != null) {
+            flush(ready);
+        }
+        return result;
+    }
+
+    private void flush(PendingBatch batch) {
+        synchronized (pendingBatches) {
+            if (pendingBatches.get(batch.binding) != batch) {
+                // Already flushed
+                return;
+            }
+            pendingBatches.remove(batch.binding);
+        }
+        executor.execute(batch::call);
+    }
+
+    private CompletableFuture<DataProduct> call(ExecutionPlan.Node node, ExecutionPlan.Candidate candidate, Scope scope, long timeoutMillis) {
+        String className = node.dataProduct().getName();
+        String providerName = candidate.binding().providerName();
+        if (!permitted(candidate.binding(), className)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long started = System.nanoTime();
+        CompletableFuture<DataProduct> call;
+        try {
+            call = candidate.binding().asyncProvider().collectDataProductAsync(
+                    node.dataProduct(),
+                    scope.collectedDataProductsMap,
+                    node.constraint()
+            );
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        if (timeoutMillis != Long.MAX_VALUE) {
+            // Timing out completes the provider's own future, which lets it cancel the underlying work
+            call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        CompletableFuture<DataProduct> providerCall = call;
+        CompletableFuture<DataProduct> result = call.handle((dataProduct, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                long elapsed = System.nanoTime() - started;
+                if (cause instanceof CancellationException) {
+                    cancelled(candidate.binding(), elapsed);
+                    return null;
+                }
+                if (cause instanceof TimeoutException) {
+                    failed(candidate.binding(), "timeout", elapsed);
+                    logger.error("Provider {} did not collect data product {} within {} ms", providerName, className, timeoutMillis);
+                    return null;
+                }
+                failed(candidate.binding(), "failure", elapsed);
+                logger.error("Failed to collect data product {} using provider {}: {}", className, providerName, cause.getMessage());
+                // Continue to next provider
+                return null;
+            }
+            if (dataProduct == null) {
+                failed(candidate.binding(), "failure", System.nanoTime() - started);
+                logger.error("Provider {} returned no data product for {}", providerName, className);
+            } else {
+                succeeded(candidate.binding(), System.nanoTime() - started);
+                logger.info("Collected data product: {} using provider: {}", className, providerName);
+                fetched(node, scope, dataProduct);
+            }
+            return dataProduct;
+        });
+        // Cancelling the result, such as the losing call of a hedged attempt, cancels the provider call
+        result.whenComplete((dataProduct, throwable) -> {
+            if (result.isCancelled()) {
+                providerCall.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // Every permitted call is reported to the statistics and the circuit breaker exactly once
+    private boolean permitted(ProviderBinding binding, String className) {
+        if (!engine.circuitBreakers.tryAcquire(binding)) {
+            logger.info("Skipping provider {} for data product {}, its circuit is open", binding.providerName(), className);
+            return false;
+        }
+        engine.providerStatistics.started(binding);
+        return true;
+    }
+
+    private void succeeded(ProviderBinding binding, long nanos) {
+        engine.metrics.providerCall(binding, "success", nanos);
+        engine.providerStatistics.succeeded(binding, nanos);
+        engine.circuitBreakers.onSuccess(binding);
+    }
+
+    private void failed(ProviderBinding binding, String outcome, long nanos) {
+        engine.metrics.providerCall(binding, outcome, nanos);
+        engine.providerStatistics.failed(binding);
+        engine.circuitBreakers.onFailure(binding);
+    }
+
+    private void cancelled(ProviderBinding binding, long nanos) {
+        engine.metrics.providerCall(binding, "cancelled", nanos);
+        engine.providerStatistics.cancelled(binding);
+        engine.circuitBreakers.onCancelled(binding);
+    }
+}
@@ -0,0 +1,104 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/ExecutionEngine.java
+
+package se.iqesolutions.datamanager.engine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.cache.ProductCache;
+import se.iqesolutions.datamanager.metrics.CollectionMetrics;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.DataProductTypeRegistry;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Executes an {@link ExecutionPlan} as a DAG. Every node starts as soon as the dependencies of
+ * its current candidate provider are collected, so independent branches run concurrently.
+ */
+@Component
+public class ExecutionEngine {
+
+    final Executor executor;
+    final ProductCache productCache;
+    final DataProductTypeRegistry typeRegistry;
+    final SingleFlight<Execution.InvocationKey, DataProduct> singleFlight;
+    final long batchLingerMillis;
+    final int batchMaxSize;
+    final double attemptTimeoutFactor;
+    final ProviderStatistics providerStatistics;
+    final CircuitBreakers circuitBreakers;
+    final CollectionMetrics metrics;
+    final CollectedProductSink collectedProductSink;
+    final boolean hedgingEnabled;
+    final double hedgingPercentile;
+    final int hedgingMinSamples;
+
+    @Autowired
+    public ExecutionEngine(
+            @Qualifier("dataProviderExecutor") Executor executor,
+            ProductCache productCache,
+            DataProductTypeRegistry typeRegistry,
+            ProviderStatistics providerStatistics,
+            CircuitBreakers circuitBreakers,
+            CollectionMetrics metrics,
+            CollectedProductSink collectedProductSink,
+            @Value("${datamanager.execution.single-flight:true}") boolean singleFlightEnabled,
+            @Value("${datamanager.execution.batch-linger-ms:5}") long batchLingerMillis,
+            @Value("${datamanager.execution.batch-max-size:500}") int batchMaxSize,
+            @Value("${datamanager.execution.attempt-timeout-factor:3}") double attemptTimeoutFactor,
+            @Value("${datamanager.execution.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${datamanager.execution.hedging.percentile:95}") double hedgingPercentile,
+            @Value("${datamanager.execution.hedging.min-samples:20}") int hedgingMinSamples
+    ) {
+        this.executor = executor;
+        this.productCache = productCache;
+        this.typeRegistry = typeRegistry;
+        this.providerStatistics = providerStatistics;
+        this.circuitBreakers = circuitBreakers;
+        this.metrics = metrics;
+        this.collectedProductSink = collectedProductSink;
+        // Identical provider calls in flight at the same time share one upstream fetch
+        this.singleFlight = singleFlightEnabled ? new SingleFlight<>() : null;
+        this.batchLingerMillis = batchLingerMillis;
+        this.batchMaxSize = batchMaxSize;
+        this.attemptTimeoutFactor = attemptTimeoutFactor;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgingPercentile = hedgingPercentile;
+        this.hedgingMinSamples = hedgingMinSamples;
+    }
+
+    public SingleFlight<?, ?> getSingleFlight() {
+        return singleFlight;
+    }
+
+    public CompletableFuture<ExecutionResult> execute(ExecutionPlan plan, List<DataProduct> alreadyAvailableDataProducts) {
+        return execute(List.of(plan), List.of(alreadyAvailableDataProducts)).thenApply(results -> results.get(0));
+    }
+
+    /**
+     * Executes the plans of several entities together. Shared nodes such as {@code Configuration}
+     * are collected once for all entities.
+     *
+     * @param plans    the plan of each entity, in the same order as {@code entities}
+     * @param entities the already available data products of each entity
+     */
+    public CompletableFuture<List<ExecutionResult>> execute(List<ExecutionPlan> plans, List<List<DataProduct>> entities) {
+        return execute(plans, entities, ExecutionListener.NONE);
+    }
+
+    /**
+     * Executes the plans like {@link #execute(List, List)}, reporting every data product to the
+     * listener as soon as it is collected or has failed.
+     */
+    public CompletableFuture<List<ExecutionResult>> execute(
+            List<ExecutionPlan> plans,
+            List<List<DataProduct>> entities,
+            ExecutionListener listener
+    ) {
+        return new Execution(this, plans, entities, listener).run();
+    }
+}
@@ -0,0 +1,30 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/ExecutionListener.java
+
+package se.iqesolutions.datamanager.engine;
+
+import se.iqesolutions.datamanager.product.DataProduct;
+
+/**
+ * Notified of every data product of an execution as soon as it is resolved, before the execution
+ * as a whole completes. Already available data products and planning failures are reported
+ * first. Called concurrently from provider threads, so implementations must neither block nor
+ * throw.
+ */
+public interface ExecutionListener {
+
+    ExecutionListener NONE = new ExecutionListener() {
+    };
+
+    /**
+     * @param entity the index of the entity the data product was collected for
+     */
+    default void collected(int entity, DataProduct dataProduct) {
+    }
+
+    /**
+     * @param entity      the index of the entity the data product failed for
+     * @param dataProduct the class name of the failed data product
+     */
+    default void failed(int entity, String dataProduct, String reason) {
+    }
+}
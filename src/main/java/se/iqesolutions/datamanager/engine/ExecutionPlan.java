@@ -0,0 +1,50 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/ExecutionPlan.java
+
+package se.iqesolutions.datamanager.engine;
+
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.provider.ProviderBinding;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolved dependency graph for one request. Every data product appears exactly once as a node,
+ * and every node lists the providers that may serve it in the order they should be tried.
+ * {@code dependencyDepth} is the longest chain of nodes that must be collected one after another.
+ * {@code cacheConstraints} holds the constraint each collected node is cached under, which for a
+ * dependency is inherited from the requested product that needs it.
+ */
+public record ExecutionPlan(
+        Map<Class<? extends DataProduct>, Node> nodes,
+        List<Node> requestedNodes,
+        Map<String, String> planningFailures,
+        int dependencyDepth,
+        Map<Class<? extends DataProduct>, DataProductConstraint> cacheConstraints
+) {
+
+    /**
+     * A data product in the plan. Nodes without candidates are either already available
+     * or could not be planned, in which case {@code failureReason} is set. Shared nodes do not
+     * depend on any already available data product, so their result is the same for every entity.
+     */
+    public record Node(
+            Class<? extends DataProduct> dataProduct,
+            DataProductConstraint constraint,
+            List<Candidate> candidates,
+            boolean available,
+            boolean shared,
+            String failureReason
+    ) {
+        public boolean failed() {
+            return failureReason != null;
+        }
+    }
+
+    /**
+     * A provider able to serve a node, together with the nodes it depends on.
+     */
+    public record Candidate(ProviderBinding binding, List<Node> dependencies) {
+    }
+}
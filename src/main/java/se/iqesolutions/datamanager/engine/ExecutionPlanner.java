@@ -0,0 +1,287 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/ExecutionPlanner.java
+
+package se.iqesolutions.datamanager.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.metrics.CollectionMetrics;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.provider.ProviderBinding;
+import se.iqesolutions.datamanager.provider.ProviderRegistry;
+
+import java.util.*;
+
+/**
+ * Turns the requested data products into an {@link ExecutionPlan}. Planning only looks at provider
+ * metadata and observed provider statistics; no provider is invoked until the plan is executed.
+ */
+@Component
+public class ExecutionPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionPlanner.class);
+
+    static final String NO_PROVIDER_REASON = "No provider available or dependencies not satisfied";
+    private static final double MIN_SUCCESS_RATE = 0.05;
+
+    private final ProviderRegistry providerRegistry;
+    private final ProviderStatistics providerStatistics;
+    private final CircuitBreakers circuitBreakers;
+    private final CollectionMetrics metrics;
+    private final PlanCache planCache;
+
+    @Autowired
+    public ExecutionPlanner(
+            ProviderRegistry providerRegistry,
+            ProviderStatistics providerStatistics,
+            CircuitBreakers circuitBreakers,
+            CollectionMetrics metrics,
+            @Value("${datamanager.plan-cache.max-size:1024}") int planCacheMaxSize
+    ) {
+        this.providerRegistry = providerRegistry;
+        this.providerStatistics = providerStatistics;
+        this.circuitBreakers = circuitBreakers;
+        this.metrics = metrics;
+        this.planCache = new PlanCache(planCacheMaxSize);
+    }
+
+    public ExecutionPlan plan(
+            Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts,
+            Set<Class<? extends DataProduct>> availableDataProducts
+    ) {
+        long started = System.nanoTime();
+        // Repeated request shapes skip provider filtering, constraint checks and sorting until the estimates move on
+        long providerVersion = providerRegistry.getVersion();
+        // Both counters only grow, so their sum changes whenever either of them does
+        long rankingGeneration = providerStatistics.getGeneration() + circuitBreakers.getVersion();
+        PlanCache.Key key = new PlanCache.Key(requestedDataProducts, availableDataProducts);
+        ExecutionPlan plan = planCache.get(key, providerVersion, rankingGeneration);
+        boolean cached = plan != null;
+        if (!cached) {
+            plan = buildPlan(requestedDataProducts, availableDataProducts);
+            planCache.put(key, plan, providerVersion, rankingGeneration);
+        }
+        metrics.planned(cached, plan.dependencyDepth(), System.nanoTime() - started);
+        return plan;
+    }
+
+    public PlanCache getPlanCache() {
+        return planCache;
+    }
+
+    private ExecutionPlan buildPlan(
+            Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts,
+            Set<Class<? extends DataProduct>> availableDataProducts
+    ) {
+        Planning planning = new Planning(requestedDataProducts, availableDataProducts);
+
+        List<ExecutionPlan.Node> requestedNodes = new ArrayList<>();
+        for (Class<? extends DataProduct> dataProductClass : requestedDataProducts.keySet()) {
+            requestedNodes.add(planning.planNode(dataProductClass));
+        }
+
+        Map<ExecutionPlan.Node, Integer> depths = new IdentityHashMap<>();
+        int dependencyDepth = 0;
+        for (ExecutionPlan.Node node : requestedNodes) {
+            dependencyDepth = Math.max(dependencyDepth, depth(node, depths));
+        }
+
+        return new ExecutionPlan(
+                Collections.unmodifiableMap(planning.nodes),
+                Collections.unmodifiableList(requestedNodes),
+                Collections.unmodifiableMap(planning.failures),
+                dependencyDepth,
+                Collections.unmodifiableMap(cacheConstraints(requestedNodes))
+        );
+    }
+
+    // A requested product is cached under its own constraint, a dependency under the constraint of the
+    // requested product that needs it, the one with the shortest maxCacheAgeSeconds when several do
+    private static Map<Class<? extends DataProduct>, DataProductConstraint> cacheConstraints(List<ExecutionPlan.Node> requestedNodes) {
+        Map<Class<? extends DataProduct>, DataProductConstraint> constraints = new HashMap<>();
+        for (ExecutionPlan.Node node : requestedNodes) {
+            if (node.constraint() != null) {
+                constraints.put(node.dataProduct(), node.constraint());
+            }
+        }
+        for (ExecutionPlan.Node node : requestedNodes) {
+            if (node.constraint() != null) {
+                inheritCacheConstraint(node, node.constraint(), constraints, new HashSet<>());
+            }
+        }
+        return constraints;
+    }
+
+    private static void inheritCacheConstraint(
+            ExecutionPlan.Node node,
+            DataProductConstraint constraint,
+            Map<Class<? extends DataProduct>, DataProductConstraint> constraints,
+            Set<Class<? extends DataProduct>> visited
+    ) {
+        for (ExecutionPlan.Candidate candidate : node.candidates()) {
+            for (ExecutionPlan.Node dependency : candidate.dependencies()) {
+                if (dependency.available() || dependency.failed() || !visited.add(dependency.dataProduct())) {
+                    continue;
+                }
+                if (dependency.constraint() == null) {
+                    constraints.merge(dependency.dataProduct(), constraint, (current, inherited) ->
+                            inherited.maxCacheAgeSeconds() < current.maxCacheAgeSeconds() ? inherited : current);
+                }
+                inheritCacheConstraint(dependency, constraint, constraints, visited);
+            }
+        }
+    }
+
+    // Nodes to collect along the longest path below this node, counting the node itself
+    private int depth(ExecutionPlan.Node node, Map<ExecutionPlan.Node, Integer> depths) {
+        Integer known = depths.get(node);
+        if (known != null) {
+            return known;
+        }
+        int depth = 0;
+        if (!node.available() && !node.failed()) {
+            for (ExecutionPlan.Candidate candidate : node.candidates()) {
+                for (ExecutionPlan.Node dependency : candidate.dependencies()) {
+                    depth = Math.max(depth, depth(dependency, depths));
+                }
+            }
+            depth++;
+        }
+        depths.put(node, depth);
+        return depth;
+    }
+
+    private final class Planning {
+        private final Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts;
+        private final Set<Class<? extends DataProduct>> availableDataProducts;
+        private final Map<Class<? extends DataProduct>, ExecutionPlan.Node> nodes = new LinkedHashMap<>();
+        private final Map<String, String> failures = new LinkedHashMap<>();
+        private final Set<Class<? extends DataProduct>> inProgressDataProducts = new HashSet<>();
+        private final Set<Class<? extends DataProduct>> cyclicDataProducts = new HashSet<>();
+
+        private Planning(
+                Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts,
+                Set<Class<? extends DataProduct>> availableDataProducts
+        ) {
+            this.requestedDataProducts = requestedDataProducts;
+            this.availableDataProducts = availableDataProducts;
+        }
+
+        private ExecutionPlan.Node planNode(Class<? extends DataProduct> dataProductClass) {
+            ExecutionPlan.Node existing = nodes.get(dataProductClass);
+            if (existing != null) {
+                return existing;
+            }
+
+            // A requested product keeps its own constraint even when it is also reached as a dependency
+            DataProductConstraint constraint = requestedDataProducts.get(dataProductClass);
+
+            if (availableDataProducts.contains(dataProductClass)) {
+                ExecutionPlan.Node node = new ExecutionPlan.Node(dataProductClass, constraint, List.of(), true, false, null);
+                nodes.put(dataProductClass, node);
+                return node;
+            }
+
+            inProgressDataProducts.add(dataProductClass);
+
+            List<ExecutionPlan.Candidate> candidates = new ArrayList<>();
+            for (ProviderBinding binding : rankProviders(dataProductClass, constraint)) {
+                List<ExecutionPlan.Node> dependencies = new ArrayList<>();
+                boolean dependenciesSatisfiable = true;
+                for (Class<? extends DataProduct> dependency : binding.dependencies()) {
+                    if (inProgressDataProducts.contains(dependency)) {
+                        logger.error("Cycle detected involving {}", dependency.getName());
+                        cyclicDataProducts.add(dependency);
+                        dependenciesSatisfiable = false;
+                        break;
+                    }
+                    ExecutionPlan.Node dependencyNode = planNode(dependency);
+                    if (dependencyNode.failed()) {
+                        dependenciesSatisfiable = false;
+                        break;
+                    }
+                    dependencies.add(dependencyNode);
+                }
+                if (dependenciesSatisfiable) {
+                    candidates.add(new ExecutionPlan.Candidate(binding, List.copyOf(dependencies)));
+                }
+            }
+
+            inProgressDataProducts.remove(dataProductClass);
+
+            boolean shared = !candidates.isEmpty() && candidates.stream()
+                    .allMatch(candidate -> candidate.dependencies().stream().allMatch(ExecutionPlan.Node::shared));
+
+            String failureReason = null;
+            if (candidates.isEmpty()) {
+                failureReason = cyclicDataProducts.contains(dataProductClass)
+                        ? "Cycle detected involving " + dataProductClass.getName()
+                        : NO_PROVIDER_REASON;
+                failures.put(dataProductClass.getName(), failureReason);
+            }
+
+            ExecutionPlan.Node node = new ExecutionPlan.Node(
+                    dataProductClass, constraint, List.copyOf(candidates), false, shared, failureReason);
+            nodes.put(dataProductClass, node);
+            return node;
+        }
+    }
+
+    // Providers that support the data product, meet the constraints and whose circuit is not open, best
+    // weighted score first. Time is the live estimate, and the score is scaled up for providers that often fail.
+    private List<ProviderBinding> rankProviders(Class<? extends DataProduct> dataProductClass, DataProductConstraint constraint) {
+        List<ProviderBinding> bindings = providerRegistry.getBindings(dataProductClass);
+        if (bindings.isEmpty()) {
+            return bindings;
+        }
+
+        double costWeight = (constraint != null) ? constraint.costWeight() : 1.0;
+        double timeWeight = (constraint != null) ? constraint.timeWeight() : 1.0;
+        // Normalize weights if both are zero to avoid division by zero
+        if (costWeight == 0 && timeWeight == 0) {
+            costWeight = 1.0;
+            timeWeight = 1.0;
+        }
+
+        List<ProviderBinding> supportingProviders = new ArrayList<>(bindings.size());
+        Map<ProviderBinding, Double> scores = new IdentityHashMap<>();
+        for (ProviderBinding binding : bindings) {
+            if (circuitBreakers.isOpen(binding)) {
+                continue;
+            }
+            ProviderStatistics.Estimate estimate = providerStatistics.estimate(binding);
+            if (meetsConstraint(binding, estimate, constraint)) {
+                supportingProviders.add(binding);
+                // Calculate weighted score
+                double score = (binding.expectedCost() * costWeight) + (estimate.time() * timeWeight);
+                scores.put(binding, score / Math.max(estimate.successRate(), MIN_SUCCESS_RATE));
+            }
+        }
+        supportingProviders.sort(Comparator.comparingDouble(scores::get));
+        return supportingProviders;
+    }
+
+    private boolean meetsConstraint(ProviderBinding binding, ProviderStatistics.Estimate estimate, DataProductConstraint constraint) {
+        if (constraint == null) {
+            return true;
+        }
+        // Check if provider's methods align with acceptable methods in constraints
+        if (constraint.acceptableMethods() != null) {
+            boolean methodAccepted = false;
+            for (String method : binding.methods()) {
+                if (constraint.acceptableMethods().contains(method)) {
+                    methodAccepted = true;
+                    break;
+                }
+            }
+            if (!methodAccepted) {
+                return false;
+            }
+        }
+        // Check cost and time constraints
+        return binding.expectedCost() <= constraint.maxCost()
+                && estimate.time() <= constraint.maxTime();
+    }
+}
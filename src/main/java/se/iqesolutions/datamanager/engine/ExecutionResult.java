@@ -0,0 +1,14 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/ExecutionResult.java
+
+package se.iqesolutions.datamanager.engine;
+
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.List;
+import java.util.Map;
+
+public record ExecutionResult(
+        List<DataProduct> collectedDataProducts,
+        Map<String, String> failedDataProducts
+) {
+}
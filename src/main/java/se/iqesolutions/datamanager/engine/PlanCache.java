@@ -0,0 +1,84 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/PlanCache.java
+
+package se.iqesolutions.datamanager.engine;
+
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution plans keyed by request shape: the requested data product classes with their constraints
+ * and the classes of the already available data products. Entries belong to one provider registry
+ * version and one ranking generation, which moves with provider statistics and circuit breaker
+ * states, and are dropped as soon as either changes.
+ */
+public class PlanCache {
+
+    private final int maxSize;
+    private final Map<Key, ExecutionPlan> plans = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long providerVersion;
+    private volatile long rankingGeneration;
+
+    public PlanCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    record Key(
+            Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts,
+            Set<Class<? extends DataProduct>> availableDataProducts
+    ) {
+    }
+
+    ExecutionPlan get(Key key, long currentProviderVersion, long currentRankingGeneration) {
+        if (providerVersion != currentProviderVersion || rankingGeneration != currentRankingGeneration) {
+            invalidate(currentProviderVersion, currentRankingGeneration);
+        }
+        ExecutionPlan plan = plans.get(key);
+        if (plan != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return plan;
+    }
+
+    void put(Key key, ExecutionPlan plan, long planProviderVersion, long planRankingGeneration) {
+        if (maxSize <= 0 || planProviderVersion != providerVersion || planRankingGeneration != rankingGeneration) {
+            return;
+        }
+        // Request shapes are expected to repeat; an overflowing cache is a sign they do not, so start over
+        if (plans.size() >= maxSize) {
+            plans.clear();
+        }
+        Key immutableKey = new Key(
+                Collections.unmodifiableMap(new HashMap<>(key.requestedDataProducts())),
+                Set.copyOf(key.availableDataProducts())
+        );
+        plans.put(immutableKey, plan);
+    }
+
+    private synchronized void invalidate(long currentProviderVersion, long currentRankingGeneration) {
+        if (providerVersion != currentProviderVersion || rankingGeneration != currentRankingGeneration) {
+            plans.clear();
+            providerVersion = currentProviderVersion;
+            rankingGeneration = currentRankingGeneration;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return plans.size();
+    }
+}
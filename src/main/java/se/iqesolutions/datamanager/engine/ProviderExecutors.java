@@ -0,0 +1,53 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/ProviderExecutors.java
+
+package se.iqesolutions.datamanager.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executor that data providers are invoked on, either a fixed pool of platform threads
+ * or one virtual thread per provider invocation.
+ */
+public final class ProviderExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderExecutors.class);
+
+    public enum Mode { PLATFORM, VIRTUAL }
+
+    private ProviderExecutors() {
+    }
+
+    public static ExecutorService create(Mode mode, int poolSize) {
+        if (mode == Mode.VIRTUAL) {
+            ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+            if (virtual != null) {
+                logger.info("Invoking data providers on virtual threads");
+                return virtual;
+            }
+            logger.warn("Virtual threads are not available on Java {}, using {} platform threads instead",
+                    Runtime.version().feature(), poolSize);
+        }
+        return Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("data-provider-"));
+    }
+
+    // Looked up at runtime so the application still builds and runs on Java 17
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (Throwable e) {
+            logger.warn("Failed to create virtual thread executor: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/ProviderStatistics.java
+
+package se.iqesolutions.datamanager.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.provider.ProviderBinding;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Observed behaviour of every provider per data product: latency of successful calls as an EWMA
+ * and over a sliding window for percentiles, success rate as an EWMA, and the number of calls in
+ * flight. The static expected time of a provider acts as a prior that observations gradually
+ * outweigh.
+ */
+@Component
+public class ProviderStatistics {
+
+    private static final int WINDOW_SIZE = 256;
+
+    private final double priorWeight;
+    private final double smoothing;
+    private final double concurrencyPenalty;
+    private final long refreshNanos;
+    private final Map<ProviderBinding, Stats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long generationStartedAt = System.nanoTime();
+    private volatile boolean observedSinceGeneration;
+
+    /**
+     * Estimated behaviour of a provider for one data product.
+     *
+     * @param time        expected seconds until the provider answers, given its current load
+     * @param successRate expected fraction of calls that return a data product
+     * @param inFlight    calls currently in flight
+     */
+    public record Estimate(double time, double successRate, int inFlight) {
+    }
+
+    public ProviderStatistics(
+            @Value("${datamanager.provider-statistics.prior-weight:20}") double priorWeight,
+            @Value("${datamanager.provider-statistics.smoothing:0.2}") double smoothing,
+            @Value("${datamanager.provider-statistics.concurrency-penalty:0.05}") double concurrencyPenalty,
+            @Value("${datamanager.provider-statistics.refresh-ms:1000}") long refreshMillis
+    ) {
+        this.priorWeight = priorWeight;
+        this.smoothing = smoothing;
+        this.concurrencyPenalty = concurrencyPenalty;
+        this.refreshNanos = refreshMillis * 1_000_000;
+    }
+
+    private static final class Stats {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int sampleCount;
+        private int nextSample;
+        private long calls;
+        private double latency = Double.NaN;
+        private double success = 1.0;
+
+        private synchronized long[] samples() {
+            return Arrays.copyOf(samples, sampleCount);
+        }
+    }
+
+    private Stats stats(ProviderBinding binding) {
+        return stats.computeIfAbsent(binding, ignored -> new Stats());
+    }
+
+    public void started(ProviderBinding binding) {
+        stats(binding).inFlight.incrementAndGet();
+    }
+
+    // A call that was cancelled, such as the losing call of a hedged attempt, says nothing about the provider
+    public void cancelled(ProviderBinding binding) {
+        stats(binding).inFlight.decrementAndGet();
+    }
+
+    public void succeeded(ProviderBinding binding, long nanos) {
+        Stats s = stats(binding);
+        s.inFlight.decrementAndGet();
+        synchronized (s) {
+            s.samples[s.nextSample] = nanos;
+            s.nextSample = (s.nextSample + 1) % WINDOW_SIZE;
+            s.sampleCount = Math.min(s.sampleCount + 1, WINDOW_SIZE);
+            double seconds = nanos / 1e9;
+            s.latency = Double.isNaN(s.latency) ? seconds : s.latency + smoothing * (seconds - s.latency);
+            s.success += smoothing * (1.0 - s.success);
+            s.calls++;
+        }
+        observed();
+    }
+
+    public void failed(ProviderBinding binding) {
+        Stats s = stats(binding);
+        s.inFlight.decrementAndGet();
+        synchronized (s) {
+            s.success -= smoothing * s.success;
+            s.calls++;
+        }
+        observed();
+    }
+
+    public Estimate estimate(ProviderBinding binding) {
+        Stats s = stats.get(binding);
+        if (s == null) {
+            return new Estimate(binding.expectedTime(), 1.0, 0);
+        }
+        double time;
+        double successRate;
+        synchronized (s) {
+            double weight = s.calls / (s.calls + priorWeight);
+            double latency = Double.isNaN(s.latency) ? binding.expectedTime() : s.latency;
+            time = (1 - weight) * binding.expectedTime() + weight * latency;
+            successRate = (1 - weight) + weight * s.success;
+        }
+        int inFlight = Math.max(0, s.inFlight.get());
+        return new Estimate(time * (1 + concurrencyPenalty * inFlight), successRate, inFlight);
+    }
+
+    /**
+     * Returns the latency in milliseconds below which the given percentage of the recent successful
+     * calls completed, or {@code -1} when fewer than {@code minSamples} calls have been observed.
+     */
+    public long percentileMillis(ProviderBinding binding, double percentile, int minSamples) {
+        Stats s = stats.get(binding);
+        if (s == null) {
+            return -1;
+        }
+        long[] samples = s.samples();
+        if (samples.length == 0 || samples.length < minSamples) {
+            return -1;
+        }
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile / 100.0 * samples.length) - 1;
+        return samples[Math.max(0, Math.min(index, samples.length - 1))] / 1_000_000;
+    }
+
+    /**
+     * Advances at most once per refresh interval, and only when calls were observed in between.
+     * Plans ranked with the estimates of an older generation are re-ranked.
+     */
+    public long getGeneration() {
+        long now = System.nanoTime();
+        if (observedSinceGeneration && now - generationStartedAt >= refreshNanos) {
+            synchronized (generation) {
+                if (observedSinceGeneration && now - generationStartedAt >= refreshNanos) {
+                    observedSinceGeneration = false;
+                    generationStartedAt = now;
+                    generation.incrementAndGet();
+                }
+            }
+        }
+        return generation.get();
+    }
+
+    private void observed() {
+        if (!observedSinceGeneration) {
+            observedSinceGeneration = true;
+        }
+    }
+}
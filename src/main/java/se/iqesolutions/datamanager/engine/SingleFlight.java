@@ -0,0 +1,91 @@
+// File: src/main/java/se/iqesolutions/datamanager/engine/SingleFlight.java
+
+package se.iqesolutions.datamanager.engine;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls with the same key. The first caller performs the call and every
+ * caller arriving while it is in flight shares its outcome, including failures. The call is
+ * cancelled once every caller waiting for it has cancelled.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private volatile CompletableFuture<V> call;
+        // Only changed inside compute on the map entry
+        private int waiters;
+    }
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        Flight<V> created = new Flight<>();
+        Flight<V> flight = inFlight.compute(key, (k, existing) -> {
+            Flight<V> joined = existing != null ? existing : created;
+            joined.waiters++;
+            return joined;
+        });
+        if (flight != created) {
+            coalesced.increment();
+            return view(key, flight);
+        }
+
+        try {
+            flight.call = call.get();
+            flight.call.whenComplete((value, throwable) -> {
+                // Leave the map before completing so later callers start a fresh call
+                inFlight.remove(key, flight);
+                if (throwable != null) {
+                    flight.result.completeExceptionally(throwable);
+                } else {
+                    flight.result.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.result.completeExceptionally(e);
+        }
+        return view(key, flight);
+    }
+
+    // Callers get their own view so cancelling one of them leaves the shared call running for the others
+    private CompletableFuture<V> view(K key, Flight<V> flight) {
+        CompletableFuture<V> view = flight.result.copy();
+        view.whenComplete((value, throwable) -> {
+            if (view.isCancelled()) {
+                leave(key, flight);
+            }
+        });
+        return view;
+    }
+
+    private void leave(K key, Flight<V> flight) {
+        boolean[] abandoned = new boolean[1];
+        inFlight.computeIfPresent(key, (k, existing) -> {
+            if (existing != flight || --existing.waiters > 0) {
+                return existing;
+            }
+            abandoned[0] = true;
+            return null;
+        });
+        CompletableFuture<V> call = flight.call;
+        if (abandoned[0] && call != null) {
+            call.cancel(true);
+        }
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,75 @@
+// File: src/main/java/se/iqesolutions/datamanager/metrics/CacheMetrics.java
+
+package se.iqesolutions.datamanager.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.cache.ProductCache;
+import se.iqesolutions.datamanager.engine.CircuitBreakers;
+import se.iqesolutions.datamanager.engine.ExecutionEngine;
+import se.iqesolutions.datamanager.engine.ExecutionPlanner;
+import se.iqesolutions.datamanager.engine.PlanCache;
+import se.iqesolutions.datamanager.engine.SingleFlight;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the hit and miss counts of the plan and product caches, single-flight coalescing and
+ * open circuit breakers, read from the components when metrics are scraped.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private final ExecutionPlanner executionPlanner;
+    private final ExecutionEngine executionEngine;
+    private final ProductCache productCache;
+    private final CircuitBreakers circuitBreakers;
+
+    public CacheMetrics(
+            ExecutionPlanner executionPlanner,
+            ExecutionEngine executionEngine,
+            ProductCache productCache,
+            CircuitBreakers circuitBreakers
+    ) {
+        this.executionPlanner = executionPlanner;
+        this.executionEngine = executionEngine;
+        this.productCache = productCache;
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        PlanCache planCache = executionPlanner.getPlanCache();
+        cacheRequests(registry, "plan", "hit", planCache, PlanCache::getHitCount);
+        cacheRequests(registry, "plan", "miss", planCache, PlanCache::getMissCount);
+        cacheRequests(registry, "product", "hit", productCache, cache -> cache.getStats().hitCount());
+        cacheRequests(registry, "product", "miss", productCache, cache -> cache.getStats().missCount());
+        Gauge.builder("datamanager.cache.size", planCache, PlanCache::size)
+                .tag("cache", "plan")
+                .register(registry);
+
+        SingleFlight<?, ?> singleFlight = executionEngine.getSingleFlight();
+        if (singleFlight != null) {
+            FunctionCounter.builder("datamanager.single.flight.coalesced", singleFlight, SingleFlight::getCoalescedCount)
+                    .description("Provider calls that joined an identical call already in flight")
+                    .register(registry);
+        }
+
+        Gauge.builder("datamanager.circuit.breakers.open", circuitBreakers,
+                        breakers -> breakers.getStatuses().stream().filter(status -> status.state() != CircuitBreakers.State.CLOSED).count())
+                .description("Circuit breakers that are open or half-open")
+                .register(registry);
+    }
+
+    private <T> void cacheRequests(MeterRegistry registry, String cache, String result, T source,
+                                   ToDoubleFunction<T> count) {
+        FunctionCounter.builder("datamanager.cache.requests", source, count)
+                .description("Cache lookups by result")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,124 @@
+// File: src/main/java/se/iqesolutions/datamanager/metrics/CollectionMetrics.java
+
+package se.iqesolutions.datamanager.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.provider.ProviderBinding;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation of the collection pipeline: planning, provider calls, data product
+ * resolution and the outcome of every request.
+ */
+@Component
+public class CollectionMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer planningHit;
+    private final Timer planningMiss;
+    private final DistributionSummary dependencyDepth;
+    private final DistributionSummary requestedPerRequest;
+    private final DistributionSummary collectedPerRequest;
+    private final DistributionSummary failedPerRequest;
+    // Meters are looked up once per tag combination, recording then costs a map lookup
+    private final Map<ProviderCallKey, Timer> providerCalls = new ConcurrentHashMap<>();
+    private final Map<ProductKey, Timer> productsResolved = new ConcurrentHashMap<>();
+    private final Map<ProductKey, Counter> productCounters = new ConcurrentHashMap<>();
+
+    private record ProviderCallKey(String provider, Class<? extends DataProduct> dataProduct, String outcome) {
+    }
+
+    // The name is a meter name or an outcome, depending on the map
+    private record ProductKey(Class<? extends DataProduct> dataProduct, String name) {
+    }
+
+    public CollectionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.planningHit = planningTimer("hit");
+        this.planningMiss = planningTimer("miss");
+        this.dependencyDepth = DistributionSummary.builder("datamanager.plan.dependency.depth")
+                .description("Longest chain of data products that must be collected one after another")
+                .register(registry);
+        this.requestedPerRequest = productsPerRequest("requested");
+        this.collectedPerRequest = productsPerRequest("collected");
+        this.failedPerRequest = productsPerRequest("failed");
+    }
+
+    private Timer planningTimer(String planCache) {
+        return Timer.builder("datamanager.planning")
+                .description("Time to plan a request")
+                .tag("plan.cache", planCache)
+                .register(registry);
+    }
+
+    private DistributionSummary productsPerRequest(String outcome) {
+        return DistributionSummary.builder("datamanager.request.products")
+                .description("Data products per entity of a request")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void planned(boolean cached, int depth, long nanos) {
+        (cached ? planningHit : planningMiss).record(nanos, TimeUnit.NANOSECONDS);
+        dependencyDepth.record(depth);
+    }
+
+    /**
+     * @param outcome one of {@code success}, {@code failure}, {@code timeout} or {@code cancelled}
+     */
+    public void providerCall(ProviderBinding binding, String outcome, long nanos) {
+        providerCalls.computeIfAbsent(new ProviderCallKey(binding.providerName(), binding.dataProduct(), outcome), key ->
+                Timer.builder("datamanager.provider.calls")
+                        .description("Latency of provider calls")
+                        .tag("provider", key.provider())
+                        .tag("product", key.dataProduct().getSimpleName())
+                        .tag("outcome", key.outcome())
+                        .publishPercentileHistogram()
+                        .register(registry)
+        ).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Time from when a data product is needed until it is collected or given up, dependencies included
+    public void productResolved(Class<? extends DataProduct> dataProduct, boolean collected, long nanos) {
+        productsResolved.computeIfAbsent(new ProductKey(dataProduct, collected ? "collected" : "failed"), key ->
+                Timer.builder("datamanager.products")
+                        .description("Latency of collecting data products")
+                        .tag("product", key.dataProduct().getSimpleName())
+                        .tag("outcome", key.name())
+                        .publishPercentileHistogram()
+                        .register(registry)
+        ).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void fallback(Class<? extends DataProduct> dataProduct) {
+        productCounter("datamanager.provider.fallbacks", "Provider attempts that failed over to the next ranked provider", dataProduct)
+                .increment();
+    }
+
+    public void hedge(Class<? extends DataProduct> dataProduct) {
+        productCounter("datamanager.provider.hedges", "Hedged calls started because a provider was slower than usual", dataProduct)
+                .increment();
+    }
+
+    private Counter productCounter(String name, String description, Class<? extends DataProduct> dataProduct) {
+        return productCounters.computeIfAbsent(new ProductKey(dataProduct, name), key ->
+                Counter.builder(key.name())
+                        .description(description)
+                        .tag("product", key.dataProduct().getSimpleName())
+                        .register(registry));
+    }
+
+    public void request(int requested, int collected, int failed) {
+        requestedPerRequest.record(requested);
+        collectedPerRequest.record(collected);
+        failedPerRequest.record(failed);
+    }
+}
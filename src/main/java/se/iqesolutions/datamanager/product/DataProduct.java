@@ -3,10 +3,14 @@
 package se.iqesolutions.datamanager.product;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
+
 import java.io.Serializable;
 
 // This annotation helps with polymorphic deserialization
-@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@class")
+// The "@class" ids are resolved through the DataProductTypeRegistry instead of by reflection
+@JsonTypeInfo(use = JsonTypeInfo.Id.CUSTOM, property = "@class")
+@JsonTypeIdResolver(DataProductTypeIdResolver.class)
 public interface DataProduct extends Serializable {
     // Marker interface; can add common methods if needed
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+// File: src/main/java/se/iqesolutions/datamanager/product/DataProductTypeIdResolver.java
+
+package se.iqesolutions.datamanager.product;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.impl.TypeIdResolverBase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Resolves the type ids of data products through the {@link DataProductTypeRegistry} instead of
+ * loading the class of every id by reflection. Writes fully qualified class names and reads
+ * either class names or aliases.
+ * <p>
+ * Spring's handler instantiator injects the application's registry. Object mappers created
+ * outside of Spring share a registry of their own.
+ */
+public class DataProductTypeIdResolver extends TypeIdResolverBase {
+
+    private static final class Shared {
+        static final DataProductTypeRegistry REGISTRY = new DataProductTypeRegistry();
+    }
+
+    protected final DataProductTypeRegistry registry;
+
+    public DataProductTypeIdResolver() {
+        this(Shared.REGISTRY);
+    }
+
+    @Autowired
+    public DataProductTypeIdResolver(DataProductTypeRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public String idFromValue(Object value) {
+        return idFromValueAndType(value, value.getClass());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String idFromValueAndType(Object value, Class<?> type) {
+        DataProductTypeRegistry.Registration registration = registry.get((Class<? extends DataProduct>) type);
+        // A data product outside the product package is written by class name but cannot be read back
+        return registration != null ? idOf(registration) : type.getName();
+    }
+
+    protected String idOf(DataProductTypeRegistry.Registration registration) {
+        return registration.className();
+    }
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) {
+        DataProductTypeRegistry.Registration registration = registry.find(id);
+        // Null lets Jackson report the unknown type id the way it does for any other type
+        return registration != null ? context.constructType(registration.type()) : null;
+    }
+
+    @Override
+    public String getDescForKnownTypeIds() {
+        return "data product class names or aliases";
+    }
+
+    @Override
+    public JsonTypeInfo.Id getMechanism() {
+        return JsonTypeInfo.Id.CUSTOM;
+    }
+}
@@ -0,0 +1,117 @@
+// File: src/main/java/se/iqesolutions/datamanager/product/DataProductTypeRegistry.java
+
+package se.iqesolutions.datamanager.product;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The data products found once at startup among the classes of the product package. Each one is
+ * known by its fully qualified class name, a short alias (its simple class name) and a numeric id.
+ * Ids follow the order of the class names, so they are stable for a given set of data products.
+ * <p>
+ * Names are resolved only against the data products found at startup. Any other name is unknown,
+ * so no class is loaded by reflection for a name taken from a request and the ids never change
+ * while the application runs.
+ */
+@Component
+public class DataProductTypeRegistry {
+
+    public record Registration(Class<? extends DataProduct> type, String alias, int id) {
+        public String className() {
+            return type.getName();
+        }
+    }
+
+    private final Map<String, Registration> byName;
+    private final Map<Class<?>, Registration> byType;
+    private final List<Registration> byId;
+
+    public DataProductTypeRegistry() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AssignableTypeFilter(DataProduct.class));
+        List<Class<? extends DataProduct>> types = scanner.findCandidateComponents(DataProduct.class.getPackageName()).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .sorted(Comparator.naturalOrder())
+                .<Class<? extends DataProduct>>map(className -> asDataProduct(ClassUtils.resolveClassName(className, classLoader())))
+                .toList();
+
+        Map<String, Registration> names = new HashMap<>();
+        Map<Class<?>, Registration> registeredTypes = new HashMap<>();
+        List<Registration> ids = new ArrayList<>(types.size());
+        for (Class<? extends DataProduct> type : types) {
+            Registration registration = new Registration(type, type.getSimpleName(), ids.size() + 1);
+            Registration clash = names.get(registration.alias());
+            if (clash != null) {
+                throw new IllegalStateException("Data products " + clash.className() + " and " + type.getName()
+                        + " share the alias " + registration.alias());
+            }
+            names.put(registration.className(), registration);
+            names.put(registration.alias(), registration);
+            registeredTypes.put(type, registration);
+            ids.add(registration);
+        }
+        this.byName = Map.copyOf(names);
+        this.byType = Map.copyOf(registeredTypes);
+        this.byId = List.copyOf(ids);
+    }
+
+    /**
+     * @return the registration of a fully qualified class name or alias, or null when it is not a known data product
+     */
+    public Registration find(String name) {
+        return name != null ? byName.get(name) : null;
+    }
+
+    /**
+     * @return the registration of the data product class, or null when it was not found at startup
+     */
+    public Registration get(Class<? extends DataProduct> type) {
+        return byType.get(type);
+    }
+
+    /**
+     * @return the registration with the numeric id, or null when there is none
+     */
+    public Registration get(int id) {
+        return id >= 1 && id <= byId.size() ? byId.get(id - 1) : null;
+    }
+
+    public List<Registration> getRegistrations() {
+        return byId;
+    }
+
+    /**
+     * @return the alias of the fully qualified class name, or the name itself when it is not a known data product
+     */
+    public String shorten(String className) {
+        Registration registration = find(className);
+        return registration != null ? registration.alias() : className;
+    }
+
+    /**
+     * @return the fully qualified class name of the alias, or the alias itself when it is not a known data product
+     */
+    public String expand(String alias) {
+        Registration registration = find(alias);
+        return registration != null ? registration.className() : alias;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends DataProduct> asDataProduct(Class<?> type) {
+        return (Class<? extends DataProduct>) type;
+    }
+
+    private static ClassLoader classLoader() {
+        return DataProduct.class.getClassLoader();
+    }
+}
@@ -0,0 +1,79 @@
+// File: src/main/java/se/iqesolutions/datamanager/product/FixedPoint.java
+
+package se.iqesolutions.datamanager.product;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Decimals held as a scaled {@code long} and its scale, the value being {@code unscaled × 10^-scale}
+ * like a {@link BigDecimal}. Data products keep amounts this way so providers and the scoring code
+ * work on primitives, while JSON still renders the exact decimal.
+ */
+public final class FixedPoint {
+
+    public static final int MAX_SCALE = 18;
+    private static final int MAX_DIGITS = 18;
+    private static final BigInteger MAX_UNSCALED = BigInteger.TEN.pow(MAX_DIGITS).subtract(BigInteger.ONE);
+
+    // Every power of ten up to 10^18 is exact as a double, so dividing by one rounds only once
+    private static final double[] POWERS_OF_TEN = new double[MAX_SCALE + 1];
+
+    static {
+        double power = 1.0;
+        for (int scale = 0; scale <= MAX_SCALE; scale++) {
+            POWERS_OF_TEN[scale] = power;
+            power *= 10.0;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    public static double toDouble(long unscaled, int scale) {
+        return unscaled / POWERS_OF_TEN[scale];
+    }
+
+    public static BigDecimal toBigDecimal(long unscaled, int scale) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * @return the unscaled value of the decimal once {@linkplain #normalize normalized}
+     * @throws ArithmeticException when the decimal cannot be normalized
+     */
+    public static long unscaled(BigDecimal value) {
+        return normalize(value).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @return the scale of the decimal once {@linkplain #normalize normalized}
+     * @throws ArithmeticException when the decimal cannot be normalized
+     */
+    public static int scale(BigDecimal value) {
+        return normalize(value).scale();
+    }
+
+    /**
+     * Brings a negative scale, as in {@code 1E+2}, up to 0 and drops trailing zeros beyond
+     * {@link #MAX_SCALE}, neither of which changes the value.
+     *
+     * @throws ArithmeticException when the unscaled value needs more than 18 digits or the scale stays above {@link #MAX_SCALE}
+     */
+    public static BigDecimal normalize(BigDecimal value) {
+        BigDecimal normalized = value.scale() > MAX_SCALE ? value.stripTrailingZeros() : value;
+        normalized = normalized.setScale(Math.max(0, normalized.scale()));
+        checkScale(normalized.scale());
+        if (normalized.unscaledValue().abs().compareTo(MAX_UNSCALED) > 0) {
+            throw new ArithmeticException(value + " needs more than " + MAX_DIGITS + " digits");
+        }
+        return normalized;
+    }
+
+    public static int checkScale(int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new ArithmeticException("Scale " + scale + " is outside 0 to " + MAX_SCALE);
+        }
+        return scale;
+    }
+}
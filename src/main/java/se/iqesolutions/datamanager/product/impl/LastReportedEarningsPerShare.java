@@ -2,9 +2,46 @@
 
 package se.iqesolutions.datamanager.product.impl;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.FixedPoint;
 
 import java.math.BigDecimal;
 
-public record LastReportedEarningsPerShare(String tickerSymbol, BigDecimal earningsPerShare) implements DataProduct {
-}
\ No newline at end of file
+/**
+ * The earnings per share are kept as a {@link FixedPoint} decimal and rendered as the exact decimal in JSON.
+ */
+public record LastReportedEarningsPerShare(
+        String tickerSymbol,
+        @JsonIgnore long earningsPerShareUnscaled,
+        @JsonIgnore int earningsPerShareScale
+) implements DataProduct {
+
+    public LastReportedEarningsPerShare {
+        FixedPoint.checkScale(earningsPerShareScale);
+    }
+
+    @JsonCreator
+    public LastReportedEarningsPerShare(
+            @JsonProperty("tickerSymbol") String tickerSymbol,
+            @JsonProperty("earningsPerShare") BigDecimal earningsPerShare
+    ) {
+        this(tickerSymbol, FixedPoint.unscaled(earningsPerShare), FixedPoint.scale(earningsPerShare));
+    }
+
+    @JsonProperty("earningsPerShare")
+    public BigDecimal earningsPerShare() {
+        return FixedPoint.toBigDecimal(earningsPerShareUnscaled, earningsPerShareScale);
+    }
+
+    public double earningsPerShareAsDouble() {
+        return FixedPoint.toDouble(earningsPerShareUnscaled, earningsPerShareScale);
+    }
+
+    @Override
+    public String toString() {
+        return "LastReportedEarningsPerShare[tickerSymbol=" + tickerSymbol + ", earningsPerShare=" + earningsPerShare() + "]";
+    }
+}
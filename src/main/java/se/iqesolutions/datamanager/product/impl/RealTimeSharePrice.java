@@ -2,9 +2,43 @@
 
 package se.iqesolutions.datamanager.product.impl;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.FixedPoint;
 
 import java.math.BigDecimal;
 
-public record RealTimeSharePrice(String tickerSymbol, BigDecimal price) implements DataProduct {
-}
\ No newline at end of file
+/**
+ * The price is kept as a {@link FixedPoint} decimal and rendered as the exact decimal in JSON.
+ */
+public record RealTimeSharePrice(
+        String tickerSymbol,
+        @JsonIgnore long priceUnscaled,
+        @JsonIgnore int priceScale
+) implements DataProduct {
+
+    public RealTimeSharePrice {
+        FixedPoint.checkScale(priceScale);
+    }
+
+    @JsonCreator
+    public RealTimeSharePrice(@JsonProperty("tickerSymbol") String tickerSymbol, @JsonProperty("price") BigDecimal price) {
+        this(tickerSymbol, FixedPoint.unscaled(price), FixedPoint.scale(price));
+    }
+
+    @JsonProperty("price")
+    public BigDecimal price() {
+        return FixedPoint.toBigDecimal(priceUnscaled, priceScale);
+    }
+
+    public double priceAsDouble() {
+        return FixedPoint.toDouble(priceUnscaled, priceScale);
+    }
+
+    @Override
+    public String toString() {
+        return "RealTimeSharePrice[tickerSymbol=" + tickerSymbol + ", price=" + price() + "]";
+    }
+}
@@ -4,5 +4,18 @@ package se.iqesolutions.datamanager.product.impl;
 
 import se.iqesolutions.datamanager.product.DataProduct;
 
+import java.util.regex.Pattern;
+
 public record TickerSymbol(String symbol) implements DataProduct {
-}
\ No newline at end of file
+
+    // Letters, digits and the separators exchanges use, short enough to name a file or a feed
+    private static final Pattern PLAIN = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,31}");
+
+    /**
+     * @return whether the symbol is a plain ticker, safe to use where client input must not go
+     * unchecked such as file names or long-lived subscriptions
+     */
+    public static boolean isPlain(String symbol) {
+        return symbol != null && PLAIN.matcher(symbol).matches();
+    }
+}
@@ -0,0 +1,33 @@
+// File: src/main/java/se/iqesolutions/datamanager/provider/AsyncDataProvider.java
+
+package se.iqesolutions.datamanager.provider;
+
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A provider that collects without blocking the calling thread. Providers implementing only
+ * {@link DataProvider} are adapted by {@link BlockingDataProviderAdapter}.
+ */
+public interface AsyncDataProvider extends DataProvider {
+    /**
+     * Starts collecting the DataProduct. Cancelling the returned future should abort the upstream call.
+     */
+    CompletableFuture<DataProduct> collectDataProductAsync(
+        Class<? extends DataProduct> dataProduct,
+        Map<Class<? extends DataProduct>, DataProduct> availableDataProducts,
+        DataProductConstraint constraint
+    );
+
+    @Override
+    default DataProduct collectDataProduct(
+        Class<? extends DataProduct> dataProduct,
+        Map<Class<? extends DataProduct>, DataProduct> availableDataProducts,
+        DataProductConstraint constraint
+    ) throws Exception {
+        return collectDataProductAsync(dataProduct, availableDataProducts, constraint).get();
+    }
+}
@@ -0,0 +1,26 @@
+// File: src/main/java/se/iqesolutions/datamanager/provider/BatchDataProvider.java
+
+package se.iqesolutions.datamanager.provider;
+
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A provider that can collect a data product for many entities in one upstream call. The engine
+ * prefers this path whenever more than one entity needs the same data product from this provider.
+ */
+public interface BatchDataProvider extends DataProvider {
+    /**
+     * Attempts to collect the DataProduct for every entity. Each element of
+     * {@code availableDataProducts} holds the data products available for one entity, and the
+     * returned list holds one result per entity in the same order.
+     */
+    List<BatchItemResult> collectDataProducts(
+        Class<? extends DataProduct> dataProduct,
+        List<Map<Class<? extends DataProduct>, DataProduct>> availableDataProducts,
+        DataProductConstraint constraint
+    ) throws Exception;
+}
@@ -0,0 +1,19 @@
+// File: src/main/java/se/iqesolutions/datamanager/provider/BatchItemResult.java
+
+package se.iqesolutions.datamanager.provider;
+
+import se.iqesolutions.datamanager.product.DataProduct;
+
+/**
+ * Outcome of a batch call for one entity: either a data product or the reason it failed.
+ */
+public record BatchItemResult(DataProduct dataProduct, String failureReason) {
+
+    public static BatchItemResult success(DataProduct dataProduct) {
+        return new BatchItemResult(dataProduct, null);
+    }
+
+    public static BatchItemResult failure(String failureReason) {
+        return new BatchItemResult(null, failureReason);
+    }
+}
@@ -0,0 +1,104 @@
+// File: src/main/java/se/iqesolutions/datamanager/provider/BlockingDataProviderAdapter.java
+
+package se.iqesolutions.datamanager.provider;
+
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs a blocking {@link DataProvider} on an executor so it can be used as an {@link AsyncDataProvider}.
+ * Cancelling the returned future, or completing it exceptionally such as on a timeout, interrupts the
+ * provider call.
+ */
+public class BlockingDataProviderAdapter implements AsyncDataProvider {
+
+    private final DataProvider delegate;
+    private final Executor executor;
+
+    public BlockingDataProviderAdapter(DataProvider delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<DataProduct> collectDataProductAsync(
+            Class<? extends DataProduct> dataProduct,
+            Map<Class<? extends DataProduct>, DataProduct> availableDataProducts,
+            DataProductConstraint constraint
+    ) {
+        CompletableFuture<DataProduct> result = new CompletableFuture<>();
+        FutureTask<DataProduct> task = new FutureTask<>(() -> delegate.collectDataProduct(dataProduct, availableDataProducts, constraint)) {
+            @Override
+            protected void done() {
+                // The task is done before the result completes, so a failing provider is never interrupted
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+        result.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                task.cancel(true);
+            }
+        });
+        executor.execute(task);
+        return result;
+    }
+
+    @Override
+    public DataProduct collectDataProduct(
+            Class<? extends DataProduct> dataProduct,
+            Map<Class<? extends DataProduct>, DataProduct> availableDataProducts,
+            DataProductConstraint constraint
+    ) throws Exception {
+        return delegate.collectDataProduct(dataProduct, availableDataProducts, constraint);
+    }
+
+    @Override
+    public List<Class<? extends DataProduct>> getSupportedDataProducts() {
+        return delegate.getSupportedDataProducts();
+    }
+
+    @Override
+    public List<Class<? extends DataProduct>> getDependencies(Class<? extends DataProduct> dataProduct) {
+        return delegate.getDependencies(dataProduct);
+    }
+
+    @Override
+    public List<String> getMethods(Class<? extends DataProduct> dataProduct) {
+        return delegate.getMethods(dataProduct);
+    }
+
+    @Override
+    public double getExpectedTime(Class<? extends DataProduct> dataProduct) {
+        return delegate.getExpectedTime(dataProduct);
+    }
+
+    @Override
+    public double getExpectedCost(Class<? extends DataProduct> dataProduct) {
+        return delegate.getExpectedCost(dataProduct);
+    }
+
+    @Override
+    public Capability checkCapability(
+            Class<? extends DataProduct> dataProduct,
+            Map<Class<? extends DataProduct>, DataProduct> availableDataProducts
+    ) {
+        return delegate.checkCapability(dataProduct, availableDataProducts);
+    }
+}
@@ -0,0 +1,32 @@
+// File: src/main/java/se/iqesolutions/datamanager/provider/Capability.java
+
+package se.iqesolutions.datamanager.provider;
+
+/**
+ * Whether a provider can serve a data product for a particular entity. Used instead of an exception
+ * for the expected case that a provider does not cover an entity.
+ */
+public record Capability(Status status, String reason) {
+
+    public enum Status { SUPPORTED, UNSUPPORTED, UNKNOWN }
+
+    private static final Capability SUPPORTED = new Capability(Status.SUPPORTED, null);
+    private static final Capability UNKNOWN = new Capability(Status.UNKNOWN, null);
+
+    public static Capability supported() {
+        return SUPPORTED;
+    }
+
+    // The data products needed to decide are not available yet
+    public static Capability unknown() {
+        return UNKNOWN;
+    }
+
+    public static Capability unsupported(String reason) {
+        return new Capability(Status.UNSUPPORTED, reason);
+    }
+
+    public boolean isUnsupported() {
+        return status == Status.UNSUPPORTED;
+    }
+}
@@ -30,6 +30,17 @@ public interface DataProvider {
 
     double getExpectedCost(Class<? extends DataProduct> dataProduct);
 
+    /**
+     * Checks whether this provider can serve the DataProduct for the entity described by the given
+     * data products, before any of its dependencies are collected. Called again once they are.
+     */
+    default Capability checkCapability(
+        Class<? extends DataProduct> dataProduct,
+        Map<Class<? extends DataProduct>, DataProduct> availableDataProducts
+    ) {
+        return Capability.supported();
+    }
+
     /**
      * Attempts to collect the DataProduct.
      */
@@ -0,0 +1,35 @@
+// File: src/main/java/se/iqesolutions/datamanager/provider/ProviderBinding.java
+
+package se.iqesolutions.datamanager.provider;
+
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.List;
+
+/**
+ * Metadata of a provider for one of its supported data products, captured once at startup.
+ */
+public record ProviderBinding(
+        DataProvider provider,
+        AsyncDataProvider asyncProvider,
+        String providerName,
+        Class<? extends DataProduct> dataProduct,
+        List<Class<? extends DataProduct>> dependencies,
+        List<String> methods,
+        double expectedTime,
+        double expectedCost
+) {
+
+    static ProviderBinding of(DataProvider provider, AsyncDataProvider asyncProvider, Class<? extends DataProduct> dataProduct) {
+        return new ProviderBinding(
+                provider,
+                asyncProvider,
+                provider.getClass().getSimpleName(),
+                dataProduct,
+                List.copyOf(provider.getDependencies(dataProduct)),
+                List.copyOf(provider.getMethods(dataProduct)),
+                provider.getExpectedTime(dataProduct),
+                provider.getExpectedCost(dataProduct)
+        );
+    }
+}
@@ -0,0 +1,71 @@
+// File: src/main/java/se/iqesolutions/datamanager/provider/ProviderRegistry.java
+
+package se.iqesolutions.datamanager.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routing index from data product class to the providers that support it, built once when the
+ * application context starts so request-time routing is a single map lookup.
+ */
+@Component
+public class ProviderRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ProviderRegistry.class);
+
+    private final Executor executor;
+    private volatile Map<Class<? extends DataProduct>, List<ProviderBinding>> bindings;
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    public ProviderRegistry(List<DataProvider> dataProviders, @Qualifier("dataProviderExecutor") Executor executor) {
+        this.executor = executor;
+        rebuild(dataProviders);
+    }
+
+    /**
+     * Replaces the registered providers. Anything derived from the previous provider set can
+     * detect the change through {@link #getVersion()}.
+     */
+    public synchronized void rebuild(List<DataProvider> dataProviders) {
+        Map<Class<? extends DataProduct>, List<ProviderBinding>> index = new HashMap<>();
+        for (DataProvider provider : dataProviders) {
+            // Blocking providers are adapted so the engine can treat every provider as asynchronous
+            AsyncDataProvider asyncProvider = provider instanceof AsyncDataProvider async
+                    ? async
+                    : new BlockingDataProviderAdapter(provider, executor);
+            for (Class<? extends DataProduct> dataProduct : provider.getSupportedDataProducts()) {
+                index.computeIfAbsent(dataProduct, key -> new ArrayList<>()).add(ProviderBinding.of(provider, asyncProvider, dataProduct));
+            }
+        }
+
+        Map<Class<? extends DataProduct>, List<ProviderBinding>> immutableIndex = new HashMap<>();
+        index.forEach((dataProduct, providers) -> immutableIndex.put(dataProduct, List.copyOf(providers)));
+        this.bindings = Map.copyOf(immutableIndex);
+        version.incrementAndGet();
+
+        logger.info("Registered {} data providers serving {} data products", dataProviders.size(), immutableIndex.size());
+    }
+
+    /**
+     * Returns the providers supporting the given data product, in registration order.
+     */
+    public List<ProviderBinding> getBindings(Class<? extends DataProduct> dataProduct) {
+        return bindings.getOrDefault(dataProduct, List.of());
+    }
+
+    /**
+     * Returns a number that changes every time the provider set is rebuilt.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+}
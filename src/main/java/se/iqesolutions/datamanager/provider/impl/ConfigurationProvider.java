@@ -7,12 +7,13 @@ import org.springframework.stereotype.Component;
 import se.iqesolutions.datamanager.product.*;
 import se.iqesolutions.datamanager.constraints.DataProductConstraint;
 import se.iqesolutions.datamanager.product.impl.Configuration;
-import se.iqesolutions.datamanager.provider.DataProvider;
+import se.iqesolutions.datamanager.provider.AsyncDataProvider;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Component
-public class ConfigurationProvider implements DataProvider {
+public class ConfigurationProvider implements AsyncDataProvider {
 
     @Value("${stock.score.threshold:5.0}")
     private double stockScoreThreshold;
@@ -42,6 +43,16 @@ public class ConfigurationProvider implements DataProvider {
         return 0.0;
     }
 
+    // Settings are in memory, so there is no reason to hand the call to another thread
+    @Override
+    public CompletableFuture<DataProduct> collectDataProductAsync(
+            Class<? extends DataProduct> dataProduct,
+            Map<Class<? extends DataProduct>, DataProduct> availableDataProducts,
+            DataProductConstraint constraint
+    ) {
+        return CompletableFuture.completedFuture(collectDataProduct(dataProduct, availableDataProducts, constraint));
+    }
+
     @Override
     public DataProduct collectDataProduct(
             Class<? extends DataProduct> dataProduct,
@@ -7,13 +7,17 @@ import se.iqesolutions.datamanager.product.*;
 import se.iqesolutions.datamanager.constraints.DataProductConstraint;
 import se.iqesolutions.datamanager.product.impl.LastReportedEarningsPerShare;
 import se.iqesolutions.datamanager.product.impl.TickerSymbol;
-import se.iqesolutions.datamanager.provider.DataProvider;
+import se.iqesolutions.datamanager.provider.BatchDataProvider;
+import se.iqesolutions.datamanager.provider.BatchItemResult;
 
-import java.math.BigDecimal;
 import java.util.*;
 
 @Component
-public class EarningsDataProvider implements DataProvider {
+public class EarningsDataProvider implements BatchDataProvider {
+
+    // Earnings are reported with one decimal, as fixed-point values
+    private static final int EPS_SCALE = 1;
+    private static final long NOT_REPORTED = Long.MIN_VALUE;
 
     @Override
     public List<Class<? extends DataProduct>> getSupportedDataProducts() {
@@ -55,14 +59,62 @@ public class EarningsDataProvider implements DataProvider {
                 throw new Exception("TickerSymbol dependency not satisfied");
             }
             // Simulate fetching earnings per share
-            BigDecimal eps = fetchEarningsPerShare(tickerSymbol.symbol());
-            return new LastReportedEarningsPerShare(tickerSymbol.symbol(), eps);
+            long eps = fetchEarningsPerShare(tickerSymbol.symbol());
+            return new LastReportedEarningsPerShare(tickerSymbol.symbol(), eps, EPS_SCALE);
         }
         return null;
     }
 
-    private BigDecimal fetchEarningsPerShare(String symbol) {
+    @Override
+    public List<BatchItemResult> collectDataProducts(
+            Class<? extends DataProduct> dataProduct,
+            List<Map<Class<? extends DataProduct>, DataProduct>> availableDataProducts,
+            DataProductConstraint constraint
+    ) throws Exception {
+        List<BatchItemResult> results = new ArrayList<>(availableDataProducts.size());
+        if (!dataProduct.equals(LastReportedEarningsPerShare.class)) {
+            for (int i = 0; i < availableDataProducts.size(); i++) {
+                results.add(BatchItemResult.failure("Unsupported data product " + dataProduct.getName()));
+            }
+            return results;
+        }
+
+        List<String> symbols = new ArrayList<>();
+        for (Map<Class<? extends DataProduct>, DataProduct> available : availableDataProducts) {
+            TickerSymbol tickerSymbol = (TickerSymbol) available.get(TickerSymbol.class);
+            if (tickerSymbol != null) {
+                symbols.add(tickerSymbol.symbol());
+            }
+        }
+
+        // One report lookup for all symbols, the earnings are in the order of the symbols
+        long[] earnings = fetchEarningsPerShare(symbols);
+        int next = 0;
+        for (Map<Class<? extends DataProduct>, DataProduct> available : availableDataProducts) {
+            TickerSymbol tickerSymbol = (TickerSymbol) available.get(TickerSymbol.class);
+            if (tickerSymbol == null) {
+                results.add(BatchItemResult.failure("TickerSymbol dependency not satisfied"));
+                continue;
+            }
+            long eps = earnings[next++];
+            if (eps == NOT_REPORTED) {
+                results.add(BatchItemResult.failure("No earnings reported for " + tickerSymbol.symbol()));
+            } else {
+                results.add(BatchItemResult.success(new LastReportedEarningsPerShare(tickerSymbol.symbol(), eps, EPS_SCALE)));
+            }
+        }
+        return results;
+    }
+
+    private long fetchEarningsPerShare(String symbol) {
         // Placeholder data
-        return BigDecimal.valueOf(3.50); // Placeholder value
+        return 35; // Placeholder value, 3.5
+    }
+
+    private long[] fetchEarningsPerShare(List<String> symbols) {
+        // Placeholder data for many symbols in one call
+        long[] earnings = new long[symbols.size()];
+        Arrays.fill(earnings, 35); // Placeholder value, 3.5
+        return earnings;
     }
 }
\ No newline at end of file
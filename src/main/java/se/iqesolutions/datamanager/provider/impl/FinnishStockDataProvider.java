@@ -8,14 +8,25 @@ import se.iqesolutions.datamanager.product.*;
 import se.iqesolutions.datamanager.product.impl.Country;
 import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
 import se.iqesolutions.datamanager.product.impl.TickerSymbol;
+import se.iqesolutions.datamanager.provider.Capability;
 import se.iqesolutions.datamanager.provider.DataProvider;
 
-import java.math.BigDecimal;
 import java.util.*;
+import java.util.regex.Pattern;
 
 @Component
 public class FinnishStockDataProvider implements DataProvider {
 
+    // Prices are quoted with one decimal, as fixed-point values
+    private static final int PRICE_SCALE = 1;
+
+    // Nasdaq Helsinki listings are quoted with the .HE suffix, a few are also known by their plain symbol
+    private static final String HELSINKI_SUFFIX = ".HE";
+    private static final Set<String> HELSINKI_SYMBOLS = Set.of("NOK");
+    // Plain symbols of one to five letters are US listings, any other exchange suffix is a foreign one
+    private static final Pattern US_SYMBOL = Pattern.compile("[A-Z]{1,5}");
+    private static final Pattern EXCHANGE_SUFFIX = Pattern.compile(".+\\.[A-Z]{1,2}");
+
     @Override
     public List<Class<? extends DataProduct>> getSupportedDataProducts() {
         return Arrays.asList(RealTimeSharePrice.class);
@@ -44,6 +55,37 @@ public class FinnishStockDataProvider implements DataProvider {
         return 0.001; // Cheaper than existing provider
     }
 
+    @Override
+    public Capability checkCapability(
+            Class<? extends DataProduct> dataProduct,
+            Map<Class<? extends DataProduct>, DataProduct> availableDataProducts
+    ) {
+        Country country = (Country) availableDataProducts.get(Country.class);
+        if (country == null) {
+            return checkTicker((TickerSymbol) availableDataProducts.get(TickerSymbol.class));
+        }
+        // Only supports Finnish shares
+        if (!"Finland".equalsIgnoreCase(country.name())) {
+            return Capability.unsupported("FinnishStockDataProvider only supports Finnish shares");
+        }
+        return Capability.supported();
+    }
+
+    // Before Country is collected the ticker can only rule a share out, Country decides the rest
+    private static Capability checkTicker(TickerSymbol tickerSymbol) {
+        if (tickerSymbol == null || tickerSymbol.symbol() == null) {
+            return Capability.unknown();
+        }
+        String symbol = tickerSymbol.symbol().toUpperCase(Locale.ROOT);
+        if (symbol.endsWith(HELSINKI_SUFFIX) || HELSINKI_SYMBOLS.contains(symbol)) {
+            return Capability.unknown();
+        }
+        if (US_SYMBOL.matcher(symbol).matches() || EXCHANGE_SUFFIX.matcher(symbol).matches()) {
+            return Capability.unsupported("FinnishStockDataProvider only supports Finnish shares");
+        }
+        return Capability.unknown();
+    }
+
     @Override
     public DataProduct collectDataProduct(
             Class<? extends DataProduct> dataProduct,
@@ -61,14 +103,14 @@ public class FinnishStockDataProvider implements DataProvider {
                 throw new Exception("FinnishStockDataProvider only supports Finnish shares");
             }
             // Simulate fetching real-time share price
-            BigDecimal price = fetchFinnishSharePrice(tickerSymbol.symbol());
-            return new RealTimeSharePrice(tickerSymbol.symbol(), price);
+            long price = fetchFinnishSharePrice(tickerSymbol.symbol());
+            return new RealTimeSharePrice(tickerSymbol.symbol(), price, PRICE_SCALE);
         }
         return null;
     }
 
-    private BigDecimal fetchFinnishSharePrice(String symbol) {
+    private long fetchFinnishSharePrice(String symbol) {
         // Placeholder data
-        return BigDecimal.valueOf(50.0); // Placeholder value for Finnish shares
+        return 500; // Placeholder value for Finnish shares, 50.0
     }
 }
\ No newline at end of file
@@ -7,13 +7,17 @@ import se.iqesolutions.datamanager.product.*;
 import se.iqesolutions.datamanager.constraints.DataProductConstraint;
 import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
 import se.iqesolutions.datamanager.product.impl.TickerSymbol;
-import se.iqesolutions.datamanager.provider.DataProvider;
+import se.iqesolutions.datamanager.provider.BatchDataProvider;
+import se.iqesolutions.datamanager.provider.BatchItemResult;
 
-import java.math.BigDecimal;
 import java.util.*;
 
 @Component
-public class RealTimeStockDataFeedProvider implements DataProvider {
+public class RealTimeStockDataFeedProvider implements BatchDataProvider {
+
+    // The feed quotes prices with one decimal, as fixed-point values
+    private static final int PRICE_SCALE = 1;
+    private static final long NO_PRICE = Long.MIN_VALUE;
 
     @Override
     public List<Class<? extends DataProduct>> getSupportedDataProducts() {
@@ -51,15 +55,63 @@ public class RealTimeStockDataFeedProvider implements DataProvider {
             }
 
             // Simulate data collection
-            BigDecimal price = fetchRealTimePrice(tickerSymbol.symbol());
-            return new RealTimeSharePrice(tickerSymbol.symbol(), price);
+            long price = fetchRealTimePrice(tickerSymbol.symbol());
+            return new RealTimeSharePrice(tickerSymbol.symbol(), price, PRICE_SCALE);
         }
         return null;
     }
 
-    private BigDecimal fetchRealTimePrice(String symbol) {
+    @Override
+    public List<BatchItemResult> collectDataProducts(
+        Class<? extends DataProduct> dataProduct,
+        List<Map<Class<? extends DataProduct>, DataProduct>> availableDataProducts,
+        DataProductConstraint constraint
+    ) throws Exception {
+        List<BatchItemResult> results = new ArrayList<>(availableDataProducts.size());
+        if (!dataProduct.equals(RealTimeSharePrice.class)) {
+            for (int i = 0; i < availableDataProducts.size(); i++) {
+                results.add(BatchItemResult.failure("Unsupported data product " + dataProduct.getName()));
+            }
+            return results;
+        }
+
+        List<String> symbols = new ArrayList<>();
+        for (Map<Class<? extends DataProduct>, DataProduct> available : availableDataProducts) {
+            TickerSymbol tickerSymbol = (TickerSymbol) available.get(TickerSymbol.class);
+            if (tickerSymbol != null) {
+                symbols.add(tickerSymbol.symbol());
+            }
+        }
+
+        // One feed call for all symbols, the prices are in the order of the symbols
+        long[] prices = fetchRealTimePrices(symbols);
+        int next = 0;
+        for (Map<Class<? extends DataProduct>, DataProduct> available : availableDataProducts) {
+            TickerSymbol tickerSymbol = (TickerSymbol) available.get(TickerSymbol.class);
+            if (tickerSymbol == null) {
+                results.add(BatchItemResult.failure("TickerSymbol dependency not satisfied"));
+                continue;
+            }
+            long price = prices[next++];
+            if (price == NO_PRICE) {
+                results.add(BatchItemResult.failure("No price for " + tickerSymbol.symbol()));
+            } else {
+                results.add(BatchItemResult.success(new RealTimeSharePrice(tickerSymbol.symbol(), price, PRICE_SCALE)));
+            }
+        }
+        return results;
+    }
+
+    private long fetchRealTimePrice(String symbol) {
         // Simulate fetching real-time price
-        return BigDecimal.valueOf(100.0); // Placeholder value
+        return 1000; // Placeholder value, 100.0
+    }
+
+    private long[] fetchRealTimePrices(List<String> symbols) {
+        // Simulate fetching real-time prices for many symbols in one call
+        long[] prices = new long[symbols.size()];
+        Arrays.fill(prices, 1000); // Placeholder value, 100.0
+        return prices;
     }
 
     @Override
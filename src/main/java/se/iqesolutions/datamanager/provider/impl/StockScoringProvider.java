@@ -62,8 +62,8 @@ public class StockScoringProvider implements DataProvider {
             }
 
             // Calculate stock score (simple placeholder calculation)
-            double price = sharePrice.price().doubleValue();
-            double eps = earningsPerShare.earningsPerShare().doubleValue();
+            double price = sharePrice.priceAsDouble();
+            double eps = earningsPerShare.earningsPerShareAsDouble();
             double score = price / eps;
 
             // Adjust score based on country or configuration if needed
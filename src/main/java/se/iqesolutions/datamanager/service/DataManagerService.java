@@ -6,212 +6,190 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import se.iqesolutions.datamanager.DataManagerBatchRequest;
+import se.iqesolutions.datamanager.DataManagerBatchResponse;
 import se.iqesolutions.datamanager.DataManagerRequest;
 import se.iqesolutions.datamanager.DataManagerResponse;
 import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.engine.Dataflow;
+import se.iqesolutions.datamanager.engine.ExecutionEngine;
+import se.iqesolutions.datamanager.engine.ExecutionListener;
+import se.iqesolutions.datamanager.engine.ExecutionPlan;
+import se.iqesolutions.datamanager.engine.ExecutionPlanner;
+import se.iqesolutions.datamanager.engine.ExecutionResult;
+import se.iqesolutions.datamanager.metrics.CollectionMetrics;
 import se.iqesolutions.datamanager.product.DataProduct;
-import se.iqesolutions.datamanager.provider.DataProvider;
+import se.iqesolutions.datamanager.product.DataProductTypeRegistry;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class DataManagerService {
     private static final Logger logger = LoggerFactory.getLogger(DataManagerService.class);
 
-    private final List<DataProvider> dataProviders;
+    private final ExecutionPlanner executionPlanner;
+    private final ExecutionEngine executionEngine;
+    private final CollectionMetrics metrics;
+    private final DataProductTypeRegistry typeRegistry;
 
-    // Use constructor injection to inject all DataProvider beans
     @Autowired
-    public DataManagerService(List<DataProvider> dataProviders) {
-        this.dataProviders = dataProviders;
+    public DataManagerService(
+            ExecutionPlanner executionPlanner,
+            ExecutionEngine executionEngine,
+            CollectionMetrics metrics,
+            DataProductTypeRegistry typeRegistry
+    ) {
+        this.executionPlanner = executionPlanner;
+        this.executionEngine = executionEngine;
+        this.metrics = metrics;
+        this.typeRegistry = typeRegistry;
     }
 
     // Plan and execute data collection
     public DataManagerResponse collectDataProducts(DataManagerRequest request) {
-        Map<String, DataProductConstraint> requestedDataProductsStr = request.requestedDataProducts();
-        List<DataProduct> alreadyAvailableDataProducts = request.alreadyAvailableDataProducts();
-
-        Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts = new HashMap<>();
-        Map<Class<? extends DataProduct>, DataProduct> collectedDataProductsMap = new LinkedHashMap<>();
-        List<DataProduct> collectedDataProducts = new ArrayList<>();
-        Map<String, String> failedDataProducts = new HashMap<>();
+        return collectDataProductsAsync(request).join();
+    }
 
-        // Initialize with already available data products
-        for (DataProduct dataProduct : alreadyAvailableDataProducts) {
-            collectedDataProductsMap.put(dataProduct.getClass(), dataProduct);
-            collectedDataProducts.add(dataProduct);
-            logger.info("Already available data product: {}", dataProduct.getClass().getName());
-        }
+    public CompletableFuture<DataManagerResponse> collectDataProductsAsync(DataManagerRequest request) {
+        return collectDataProductsAsync(request, ExecutionListener.NONE);
+    }
 
-        // Convert String class names to Class objects
-        for (Map.Entry<String, DataProductConstraint> entry : requestedDataProductsStr.entrySet()) {
-            String className = entry.getKey();
-            DataProductConstraint constraint = entry.getValue();
+    /**
+     * Collects like {@link #collectDataProductsAsync(DataManagerRequest)} and also reports every
+     * data product to the listener as soon as it is collected or has failed.
+     */
+    public CompletableFuture<DataManagerResponse> collectDataProductsAsync(DataManagerRequest request, ExecutionListener listener) {
+        return collect(
+                request.requestedDataProducts(),
+                List.of(request.alreadyAvailableDataProducts()),
+                listener
+        ).thenApply(results -> {
+            // Prepare response
+            ExecutionResult result = results.get(0);
+            return new DataManagerResponse(
+                    result.collectedDataProducts(),
+                    result.failedDataProducts()
+            );
+        });
+    }
 
-            try {
-                Class<?> clazz = Class.forName(className);
-                if (DataProduct.class.isAssignableFrom(clazz)) {
-                    @SuppressWarnings("unchecked")
-                    Class<? extends DataProduct> dataProductClass = (Class<? extends DataProduct>) clazz;
-                    requestedDataProducts.put(dataProductClass, constraint);
-                } else {
-                    String message = "Class " + className + " does not implement DataProduct";
-                    logger.error(message);
-                    failedDataProducts.put(className, message);
-                }
-            } catch (ClassNotFoundException e) {
-                String message = "Class " + className + " not found";
-                logger.error(message);
-                failedDataProducts.put(className, message);
-            }
+    /**
+     * Collects the requested data products of one entity and keeps them as a {@link Dataflow}, so
+     * that a later change of an input only recomputes the products derived from it.
+     */
+    public CompletableFuture<Dataflow> collectDataflow(DataManagerRequest request) {
+        Map<String, String> failedDataProducts = new HashMap<>();
+        Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts =
+                resolveRequestedDataProducts(request.requestedDataProducts(), failedDataProducts);
+        Set<Class<? extends DataProduct>> availableDataProductClasses = new HashSet<>();
+        for (DataProduct dataProduct : request.alreadyAvailableDataProducts()) {
+            availableDataProductClasses.add(dataProduct.getClass());
         }
+        ExecutionPlan plan = executionPlanner.plan(requestedDataProducts, availableDataProductClasses);
+        return executionEngine.execute(plan, request.alreadyAvailableDataProducts()).thenApply(result -> {
+            // Names that did not resolve fail like in collect, rather than being dropped
+            Map<String, String> failed = new HashMap<>(failedDataProducts);
+            failed.putAll(result.failedDataProducts());
+            ExecutionResult merged = new ExecutionResult(result.collectedDataProducts(), failed);
+            return new Dataflow(executionPlanner, executionEngine, requestedDataProducts, plan, merged);
+        });
+    }
 
-        // Now attempt to collect each requested data product recursively
-        for (Map.Entry<Class<? extends DataProduct>, DataProductConstraint> entry : requestedDataProducts.entrySet()) {
-            Class<? extends DataProduct> dataProductClass = entry.getKey();
-            DataProductConstraint constraint = entry.getValue();
+    public DataManagerBatchResponse collectDataProducts(DataManagerBatchRequest request) {
+        return collectDataProductsAsync(request).join();
+    }
 
-            collectDataProductRecursive(
-                    dataProductClass,
-                    collectedDataProductsMap,
-                    collectedDataProducts,
-                    failedDataProducts,
-                    constraint,
-                    new HashSet<>()
-            );
+    // Plan once per distinct entity shape and collect all entities in a single execution
+    public CompletableFuture<DataManagerBatchResponse> collectDataProductsAsync(DataManagerBatchRequest request) {
+        List<List<DataProduct>> entities = new ArrayList<>(request.entities().size());
+        for (DataManagerBatchRequest.Entity entity : request.entities()) {
+            entities.add(entity.alreadyAvailableDataProducts());
         }
 
-        // Prepare response
-        return new DataManagerResponse(
-                collectedDataProducts,
-                failedDataProducts
-        );
+        return collect(request.requestedDataProducts(), entities, ExecutionListener.NONE).thenApply(results -> {
+            List<DataManagerBatchResponse.EntityResult> entityResults = new ArrayList<>(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                String entityId = request.entities().get(i).entityId();
+                ExecutionResult result = results.get(i);
+                entityResults.add(new DataManagerBatchResponse.EntityResult(
+                        entityId != null ? entityId : String.valueOf(i),
+                        result.collectedDataProducts(),
+                        result.failedDataProducts()
+                ));
+            }
+            return new DataManagerBatchResponse(entityResults);
+        });
     }
 
-    private void collectDataProductRecursive(
-            Class<? extends DataProduct> dataProductClass,
-            Map<Class<? extends DataProduct>, DataProduct> collectedDataProductsMap,
-            List<DataProduct> collectedDataProducts,
-            Map<String, String> failedDataProducts,
-            DataProductConstraint constraint,
-            Set<Class<? extends DataProduct>> inProgressDataProducts
+    private CompletableFuture<List<ExecutionResult>> collect(
+            Map<String, DataProductConstraint> requestedDataProductsStr,
+            List<List<DataProduct>> entities,
+            ExecutionListener listener
     ) {
-        String className = dataProductClass.getName();
-
-        if (collectedDataProductsMap.containsKey(dataProductClass) || failedDataProducts.containsKey(className)) {
-            return;
-        }
-
-        if (inProgressDataProducts.contains(dataProductClass)) {
-            String message = "Cycle detected involving " + className;
-            logger.error(message);
-            failedDataProducts.put(className, message);
-            return;
+        Map<String, String> failedDataProducts = new HashMap<>();
+        Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts =
+                resolveRequestedDataProducts(requestedDataProductsStr, failedDataProducts);
+        for (int i = 0; i < entities.size(); i++) {
+            int entity = i;
+            failedDataProducts.forEach((className, reason) -> listener.failed(entity, className, reason));
         }
 
-        inProgressDataProducts.add(dataProductClass);
-
-        // Find providers that can provide this data product and meet the constraints
-        boolean provided = false;
-
-        // Collect providers that support the data product
-        List<DataProvider> supportingProviders = new ArrayList<>();
-        for (DataProvider provider : dataProviders) {
-            if (provider.getSupportedDataProducts().contains(dataProductClass)) {
-                supportingProviders.add(provider);
+        Map<Set<Class<? extends DataProduct>>, ExecutionPlan> plansByShape = new HashMap<>();
+        List<ExecutionPlan> plans = new ArrayList<>(entities.size());
+        for (List<DataProduct> alreadyAvailableDataProducts : entities) {
+            Set<Class<? extends DataProduct>> availableDataProductClasses = new HashSet<>();
+            for (DataProduct dataProduct : alreadyAvailableDataProducts) {
+                availableDataProductClasses.add(dataProduct.getClass());
             }
+            plans.add(plansByShape.computeIfAbsent(availableDataProductClasses,
+                    shape -> executionPlanner.plan(requestedDataProducts, shape)));
         }
 
-        // Sort providers based on weighted score
-        supportingProviders.sort(Comparator.comparingDouble(p -> {
-            double cost = p.getExpectedCost(dataProductClass);
-            double time = p.getExpectedTime(dataProductClass);
-            double costWeight = (constraint != null) ? constraint.costWeight() : 1.0;
-            double timeWeight = (constraint != null) ? constraint.timeWeight() : 1.0;
-            // Normalize weights if both are zero to avoid division by zero
-            if (costWeight == 0 && timeWeight == 0) {
-                costWeight = 1.0;
-                timeWeight = 1.0;
+        // Resolve the dependency graph, then collect independent data products concurrently
+        return executionEngine.execute(plans, entities, listener).thenApply(results -> {
+            for (int i = 0; i < results.size(); i++) {
+                ExecutionResult result = results.get(i);
+                metrics.request(
+                        requestedDataProductsStr.size(),
+                        result.collectedDataProducts().size() - entities.get(i).size(),
+                        result.failedDataProducts().size() + failedDataProducts.size()
+                );
             }
-            // Calculate weighted score
-            return (cost * costWeight) + (time * timeWeight);
-        }));
-
-        for (DataProvider provider : supportingProviders) {
-            // Check if provider's methods align with acceptable methods in constraints
-            List<String> providerMethods = provider.getMethods(dataProductClass);
-            if (constraint != null && constraint.acceptableMethods() != null) {
-                boolean methodAccepted = false;
-                for (String method : providerMethods) {
-                    if (constraint.acceptableMethods().contains(method)) {
-                        methodAccepted = true;
-                        break;
-                    }
-                }
-                if (!methodAccepted) {
-                    // Provider's methods are not acceptable; skip to next provider
-                    continue;
-                }
+            if (failedDataProducts.isEmpty()) {
+                return results;
             }
 
-            // **Enhancements: Check cost and time constraints**
-            if (constraint != null) {
-                // Check cost
-                if (provider.getExpectedCost(dataProductClass) > constraint.maxCost()) {
-                    continue; // Skip provider
-                }
-                // Check time
-                if (provider.getExpectedTime(dataProductClass) > constraint.maxTime()) {
-                    continue; // Skip provider
-                }
+            List<ExecutionResult> merged = new ArrayList<>(results.size());
+            for (ExecutionResult result : results) {
+                Map<String, String> failed = new HashMap<>(failedDataProducts);
+                failed.putAll(result.failedDataProducts());
+                merged.add(new ExecutionResult(result.collectedDataProducts(), failed));
             }
+            return merged;
+        });
+    }
 
-            // Check dependencies
-            List<Class<? extends DataProduct>> dependencies = provider.getDependencies(dataProductClass);
-            boolean dependenciesSatisfied = true;
-            for (Class<? extends DataProduct> dependency : dependencies) {
-                if (!collectedDataProductsMap.containsKey(dependency)) {
-                    // Collect dependency recursively
-                    collectDataProductRecursive(
-                            dependency,
-                            collectedDataProductsMap,
-                            collectedDataProducts,
-                            failedDataProducts,
-                            null, // No specific constraint for dependencies
-                            inProgressDataProducts
-                    );
-                    if (!collectedDataProductsMap.containsKey(dependency)) {
-                        dependenciesSatisfied = false;
-                        break;
-                    }
-                }
-            }
+    // Convert String class names or aliases to Class objects
+    private Map<Class<? extends DataProduct>, DataProductConstraint> resolveRequestedDataProducts(
+            Map<String, DataProductConstraint> requestedDataProductsStr,
+            Map<String, String> failedDataProducts
+    ) {
+        Map<Class<? extends DataProduct>, DataProductConstraint> requestedDataProducts = new LinkedHashMap<>();
+        for (Map.Entry<String, DataProductConstraint> entry : requestedDataProductsStr.entrySet()) {
+            String className = entry.getKey();
+            DataProductConstraint constraint = entry.getValue();
 
-            if (dependenciesSatisfied) {
-                try {
-                    DataProduct dataProduct = provider.collectDataProduct(
-                            dataProductClass,
-                            collectedDataProductsMap,
-                            constraint
-                    );
-                    collectedDataProductsMap.put(dataProductClass, dataProduct);
-                    collectedDataProducts.add(dataProduct);
-                    logger.info("Collected data product: {} using provider: {}", className, provider.getClass().getSimpleName());
-                    provided = true;
-                    break;
-                } catch (Exception e) {
-                    String message = e.getMessage();
-                    logger.error("Failed to collect data product {} using provider {}: {}", className, provider.getClass().getSimpleName(), message);
-                    // Continue to next provider
-                }
+            // Only data products found at startup are resolved, names are never loaded by reflection
+            DataProductTypeRegistry.Registration registration = typeRegistry.find(className);
+            if (registration != null) {
+                requestedDataProducts.put(registration.type(), constraint);
+            } else {
+                String message = "Class " + className + " not found";
+                logger.error(message);
+                failedDataProducts.put(className, message);
             }
         }
-
-        if (!provided && !collectedDataProductsMap.containsKey(dataProductClass)) {
-            String reason = "No provider available or dependencies not satisfied";
-            failedDataProducts.put(className, reason);
-        }
-
-        inProgressDataProducts.remove(dataProductClass);
+        return requestedDataProducts;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+// File: src/main/java/se/iqesolutions/datamanager/subscription/ConflatingSubscriber.java
+
+package se.iqesolutions.datamanager.subscription;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.iqesolutions.datamanager.product.DataProduct;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A subscriber's pending updates of one data product, at most one per ticker. An update arriving
+ * while the previous one for the same ticker is still waiting replaces it, so a slow consumer
+ * only ever receives the latest value and never holds up the poller or other subscribers.
+ */
+public class ConflatingSubscriber {
+    private static final Logger logger = LoggerFactory.getLogger(ConflatingSubscriber.class);
+
+    /**
+     * Delivers one update to the client, blocking while the client is slow to read.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void send(DataProduct dataProduct) throws IOException;
+    }
+
+    private final Set<String> tickers;
+    private final Class<? extends DataProduct> dataProduct;
+    private final Sink sink;
+    private final Executor executor;
+    private final Consumer<ConflatingSubscriber> onClose;
+    // Guarded by this
+    private final Map<String, DataProduct> pending = new LinkedHashMap<>();
+    private boolean draining;
+    private volatile boolean closed;
+
+    ConflatingSubscriber(
+            Set<String> tickers,
+            Class<? extends DataProduct> dataProduct,
+            Sink sink,
+            Executor executor,
+            Consumer<ConflatingSubscriber> onClose
+    ) {
+        this.tickers = Set.copyOf(tickers);
+        this.dataProduct = dataProduct;
+        this.sink = sink;
+        this.executor = executor;
+        this.onClose = onClose;
+    }
+
+    public Set<String> getTickers() {
+        return tickers;
+    }
+
+    public Class<? extends DataProduct> getDataProduct() {
+        return dataProduct;
+    }
+
+    void offer(String ticker, DataProduct update) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            pending.put(ticker, update);
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        executor.execute(this::drain);
+    }
+
+    // A single drain per subscriber at a time keeps its updates in order
+    private void drain() {
+        while (true) {
+            DataProduct next;
+            synchronized (this) {
+                Iterator<DataProduct> iterator = pending.values().iterator();
+                if (closed || !iterator.hasNext()) {
+                    draining = false;
+                    return;
+                }
+                next = iterator.next();
+                iterator.remove();
+            }
+            try {
+                sink.send(next);
+            } catch (IOException | RuntimeException e) {
+                logger.info("Subscriber to {} disconnected: {}", dataProduct.getSimpleName(), e.getMessage());
+                close();
+            }
+        }
+    }
+
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+        }
+        onClose.accept(this);
+    }
+}
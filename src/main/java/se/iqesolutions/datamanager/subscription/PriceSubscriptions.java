@@ -0,0 +1,270 @@
+// File: src/main/java/se/iqesolutions/datamanager/subscription/PriceSubscriptions.java
+
+package se.iqesolutions.datamanager.subscription;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.DataManagerBatchRequest;
+import se.iqesolutions.datamanager.DataManagerBatchResponse;
+import se.iqesolutions.datamanager.DataManagerRequest;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.engine.Dataflow;
+import se.iqesolutions.datamanager.engine.ExecutionResult;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+import se.iqesolutions.datamanager.product.impl.StockScore;
+import se.iqesolutions.datamanager.product.impl.TickerSymbol;
+import se.iqesolutions.datamanager.service.DataManagerService;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Live updates of {@link RealTimeSharePrice} and of the data products derived from it for
+ * subscribed tickers. The prices of every ticker with at least one subscriber are collected
+ * together in one batch per poll interval, however many clients subscribe to them, and each
+ * update is handed to the subscribers' conflating queues.
+ * <p>
+ * Derived products such as {@link StockScore} are collected once per ticker as a
+ * {@link Dataflow}. Every polled price then only recomputes the products that depend on it. A
+ * dataflow that could not be collected is collected again at the next poll.
+ * <p>
+ * Every subscribed ticker is polled for as long as a client stays connected, so tickers must be
+ * plain symbols and a subscription holds a limited number of them.
+ */
+@Component
+public class PriceSubscriptions {
+    private static final Logger logger = LoggerFactory.getLogger(PriceSubscriptions.class);
+
+    private static final DataProductConstraint REAL_TIME = new DataProductConstraint(
+            List.of("REAL_TIME_FEED"), null, 0, 1.0, 5.0, 0.5, 0.5);
+    private static final Map<Class<? extends DataProduct>, DataProductConstraint> DERIVED = Map.of(
+            StockScore.class, new DataProductConstraint(List.of("CALCULATION"), null, 0, 1.0, 10.0, 0.5, 0.5));
+
+    private final DataManagerService dataManagerService;
+    private final int maxTickers;
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final ScheduledExecutorService poller =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("price-poller-"));
+    private final ExecutorService delivery =
+            Executors.newCachedThreadPool(new CustomizableThreadFactory("price-subscriber-"));
+
+    /**
+     * Subscribers of one ticker, its latest price and the dataflows of its derived products.
+     * Only changed inside compute on the feed's map entry.
+     */
+    private static final class Feed {
+        private final Set<ConflatingSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final Map<Class<? extends DataProduct>, CompletableFuture<Dataflow>> dataflows = new ConcurrentHashMap<>();
+        private volatile RealTimeSharePrice latestPrice;
+    }
+
+    @Autowired
+    public PriceSubscriptions(
+            DataManagerService dataManagerService,
+            @Value("${datamanager.subscriptions.poll-interval-ms:1000}") long pollIntervalMillis,
+            @Value("${datamanager.subscriptions.max-tickers:100}") int maxTickers
+    ) {
+        this.dataManagerService = dataManagerService;
+        this.maxTickers = maxTickers;
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to a data product of the tickers, either {@link RealTimeSharePrice} or a product
+     * derived from it. The latest known value of each ticker is delivered right away, later ones
+     * as prices are polled.
+     *
+     * @throws IllegalArgumentException when the data product cannot be subscribed to, or the tickers
+     *                                  are missing, not plain symbols or more than allowed
+     */
+    public ConflatingSubscriber subscribe(Collection<String> tickers, Class<? extends DataProduct> dataProduct, ConflatingSubscriber.Sink sink) {
+        if (dataProduct != RealTimeSharePrice.class && !DERIVED.containsKey(dataProduct)) {
+            throw new IllegalArgumentException("Subscriptions to " + dataProduct.getName() + " are not supported");
+        }
+        Set<String> distinct = new LinkedHashSet<>(tickers);
+        if (distinct.isEmpty() || distinct.size() > maxTickers) {
+            throw new IllegalArgumentException("A subscription takes from 1 to " + maxTickers + " tickers");
+        }
+        for (String ticker : distinct) {
+            if (!TickerSymbol.isPlain(ticker)) {
+                throw new IllegalArgumentException("Invalid ticker: " + ticker);
+            }
+        }
+        ConflatingSubscriber subscriber = new ConflatingSubscriber(
+                distinct, dataProduct, sink, delivery, this::unsubscribe);
+        for (String ticker : subscriber.getTickers()) {
+            Feed feed = feeds.compute(ticker, (key, existing) -> {
+                Feed joined = existing != null ? existing : new Feed();
+                joined.subscribers.add(subscriber);
+                if (dataProduct != RealTimeSharePrice.class) {
+                    joined.dataflows.computeIfAbsent(dataProduct, derived -> collectDataflow(ticker, derived));
+                }
+                return joined;
+            });
+            if (dataProduct == RealTimeSharePrice.class) {
+                RealTimeSharePrice latest = feed.latestPrice;
+                if (latest != null) {
+                    subscriber.offer(ticker, latest);
+                }
+            } else {
+                CompletableFuture<Dataflow> dataflow = feed.dataflows.get(dataProduct);
+                if (dataflow != null) {
+                    dataflow.thenAccept(flow -> {
+                        DataProduct latest = flow.getValue(dataProduct);
+                        if (latest != null) {
+                            subscriber.offer(ticker, latest);
+                        }
+                    });
+                }
+            }
+        }
+        return subscriber;
+    }
+
+    public void unsubscribe(ConflatingSubscriber subscriber) {
+        for (String ticker : subscriber.getTickers()) {
+            feeds.computeIfPresent(ticker, (key, feed) -> {
+                feed.subscribers.remove(subscriber);
+                // A derived product nobody subscribes to any more is no longer recomputed
+                feed.dataflows.keySet().removeIf(derived ->
+                        feed.subscribers.stream().noneMatch(remaining -> remaining.getDataProduct() == derived));
+                return feed.subscribers.isEmpty() ? null : feed;
+            });
+        }
+        subscriber.close();
+    }
+
+    public int getSubscribedTickerCount() {
+        return feeds.size();
+    }
+
+    private CompletableFuture<Dataflow> collectDataflow(String ticker, Class<? extends DataProduct> dataProduct) {
+        DataManagerRequest request = new DataManagerRequest(
+                Map.of(dataProduct.getName(), DERIVED.get(dataProduct)),
+                List.of(new TickerSymbol(ticker)));
+        CompletableFuture<Dataflow> dataflow;
+        try {
+            dataflow = dataManagerService.collectDataflow(request);
+        } catch (RuntimeException e) {
+            dataflow = CompletableFuture.failedFuture(e);
+        }
+        // A failed dataflow would skip every later update, so it is dropped and collected again at the next poll.
+        // Asynchronously, since it may already have failed while being put into the feed
+        CompletableFuture<Dataflow> collecting = dataflow;
+        collecting.whenCompleteAsync((flow, throwable) -> {
+            if (throwable != null) {
+                logger.error("Collecting {} for subscribed ticker {} failed: {}", dataProduct.getSimpleName(), ticker, throwable.getMessage());
+                Feed feed = feeds.get(ticker);
+                if (feed != null) {
+                    feed.dataflows.remove(dataProduct, collecting);
+                }
+            }
+        }, delivery);
+        return collecting;
+    }
+
+    // Dataflows dropped after failing are collected again for the subscribers still waiting for them
+    private void recollectDataflows(String ticker, Feed feed) {
+        for (ConflatingSubscriber subscriber : feed.subscribers) {
+            Class<? extends DataProduct> derived = subscriber.getDataProduct();
+            if (derived == RealTimeSharePrice.class || feed.dataflows.containsKey(derived)) {
+                continue;
+            }
+            feed.dataflows.computeIfAbsent(derived, dataProduct -> collectDataflow(ticker, dataProduct))
+                    .thenAccept(flow -> {
+                        DataProduct latest = flow.getValue(derived);
+                        if (latest != null) {
+                            offer(feed, ticker, latest);
+                        }
+                    });
+        }
+    }
+
+    // A poll still collecting when the next one is due is not overlapped, the next poll is skipped instead
+    void poll() {
+        List<String> tickers = new ArrayList<>(feeds.keySet());
+        if (tickers.isEmpty() || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        List<DataManagerBatchRequest.Entity> entities = new ArrayList<>(tickers.size());
+        for (String ticker : tickers) {
+            List<DataProduct> available = List.of(new TickerSymbol(ticker));
+            entities.add(new DataManagerBatchRequest.Entity(ticker, available));
+        }
+        DataManagerBatchRequest request = new DataManagerBatchRequest(Map.of(RealTimeSharePrice.class.getName(), REAL_TIME), entities);
+
+        try {
+            dataManagerService.collectDataProductsAsync(request).whenComplete((response, throwable) -> {
+                polling.set(false);
+                if (throwable != null) {
+                    logger.error("Polling subscribed prices failed", throwable);
+                    return;
+                }
+                publish(response);
+            });
+        } catch (RuntimeException e) {
+            polling.set(false);
+            logger.error("Polling subscribed prices failed", e);
+        }
+    }
+
+    private void publish(DataManagerBatchResponse response) {
+        for (DataManagerBatchResponse.EntityResult result : response.results()) {
+            for (DataProduct dataProduct : result.collectedDataProducts()) {
+                if (dataProduct instanceof RealTimeSharePrice price) {
+                    // Inside compute so a ticker whose last subscriber just left keeps no latest price
+                    feeds.computeIfPresent(result.entityId(), (ticker, feed) -> {
+                        feed.latestPrice = price;
+                        offer(feed, ticker, price);
+                        recollectDataflows(ticker, feed);
+                        feed.dataflows.values().forEach(dataflow -> dataflow
+                                .thenCompose(flow -> flow.update(price))
+                                .thenAccept(recomputed -> publish(ticker, recomputed)));
+                        return feed;
+                    });
+                }
+            }
+            if (!result.failedDataProducts().isEmpty()) {
+                logger.info("No price for subscribed ticker {}: {}", result.entityId(), result.failedDataProducts());
+            }
+        }
+    }
+
+    private void publish(String ticker, ExecutionResult recomputed) {
+        Feed feed = feeds.get(ticker);
+        if (feed != null) {
+            recomputed.collectedDataProducts().forEach(dataProduct -> offer(feed, ticker, dataProduct));
+        }
+        if (!recomputed.failedDataProducts().isEmpty()) {
+            logger.info("Could not recompute for subscribed ticker {}: {}", ticker, recomputed.failedDataProducts());
+        }
+    }
+
+    private static void offer(Feed feed, String ticker, DataProduct dataProduct) {
+        for (ConflatingSubscriber subscriber : feed.subscribers) {
+            if (subscriber.getDataProduct() == dataProduct.getClass()) {
+                subscriber.offer(ticker, dataProduct);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        feeds.values().stream().flatMap(feed -> feed.subscribers.stream()).distinct().toList().forEach(this::unsubscribe);
+        delivery.shutdownNow();
+    }
+}
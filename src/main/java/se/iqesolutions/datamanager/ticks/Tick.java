@@ -0,0 +1,26 @@
+// File: src/main/java/se/iqesolutions/datamanager/ticks/Tick.java
+
+package se.iqesolutions.datamanager.ticks;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import se.iqesolutions.datamanager.product.FixedPoint;
+
+import java.math.BigDecimal;
+
+/**
+ * A stored share price and the time in epoch milliseconds it was collected.
+ */
+public record Tick(long timestamp, @JsonIgnore long priceUnscaled, @JsonIgnore int priceScale) {
+
+    @JsonCreator
+    public Tick(@JsonProperty("timestamp") long timestamp, @JsonProperty("price") BigDecimal price) {
+        this(timestamp, FixedPoint.unscaled(price), FixedPoint.scale(price));
+    }
+
+    @JsonProperty("price")
+    public BigDecimal price() {
+        return FixedPoint.toBigDecimal(priceUnscaled, priceScale);
+    }
+}
@@ -0,0 +1,12 @@
+// File: src/main/java/se/iqesolutions/datamanager/ticks/TickConsumer.java
+
+package se.iqesolutions.datamanager.ticks;
+
+/**
+ * Receives ticks straight from the mapped segments, without a tick object per call.
+ */
+@FunctionalInterface
+public interface TickConsumer {
+
+    void accept(long timestamp, long priceUnscaled, int priceScale);
+}
@@ -0,0 +1,11 @@
+// File: src/main/java/se/iqesolutions/datamanager/ticks/TickHistory.java
+
+package se.iqesolutions.datamanager.ticks;
+
+import java.util.List;
+
+/**
+ * The stored ticks of a ticker within a time range, oldest first.
+ */
+public record TickHistory(String tickerSymbol, List<Tick> ticks) {
+}
@@ -0,0 +1,163 @@
+// File: src/main/java/se/iqesolutions/datamanager/ticks/TickLog.java
+
+package se.iqesolutions.datamanager.ticks;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * The segments of one ticker in its own directory, in time order. A new segment is started when
+ * the last one is full, and its file is named after its sequence number and first timestamp.
+ * The first timestamps of the segments are the index a time-range read starts from. The oldest
+ * segments are deleted beyond the maximum number of segments, or once retention has passed.
+ */
+final class TickLog {
+    private static final Logger logger = LoggerFactory.getLogger(TickLog.class);
+
+    private static final String SUFFIX = ".ticks";
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final int maxSegments;
+    // Segments are only added at the end, once they hold a tick, and only removed from the front
+    private final List<TickSegment> segments = new CopyOnWriteArrayList<>();
+    // Only used by the writer thread
+    private TickSegment tail;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private int nextSequence;
+
+    private TickLog(Path directory, int segmentCapacity, int maxSegments) {
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.maxSegments = maxSegments;
+    }
+
+    static TickLog open(Path directory, int segmentCapacity, int maxSegments) throws IOException {
+        TickLog log = new TickLog(directory, segmentCapacity, maxSegments);
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(directory)) {
+            // The zero-padded sequence numbers sort the files in the order they were written
+            files = listed.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            // Older segments may have been deleted, so the count of files is not the next sequence number
+            log.nextSequence = Math.max(log.nextSequence, sequence(file) + 1);
+            try {
+                TickSegment segment = TickSegment.open(file);
+                if (segment.count() > 0) {
+                    log.segments.add(segment);
+                }
+            } catch (IOException e) {
+                logger.error("Skipping tick segment {}: {}", file, e.getMessage());
+            }
+        }
+        if (!log.segments.isEmpty()) {
+            log.tail = log.segments.get(log.segments.size() - 1);
+            log.lastTimestamp = log.tail.lastTimestamp();
+        }
+        return log;
+    }
+
+    private static int sequence(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf('-');
+        try {
+            return Integer.parseInt(end > 0 ? name.substring(0, end) : name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Appends a tick. Timestamps never go backwards within a ticker, so an earlier one is moved up
+     * to the latest appended.
+     */
+    void append(long timestamp, long priceUnscaled, int priceScale) throws IOException {
+        long ordered = Math.max(timestamp, lastTimestamp);
+        if (tail == null || tail.isFull()) {
+            if (tail != null) {
+                tail.force();
+            }
+            String name = String.format("%010d-%020d%s", nextSequence++, ordered, SUFFIX);
+            tail = TickSegment.create(directory.resolve(name), segmentCapacity);
+        }
+        tail.append(ordered, priceUnscaled, priceScale);
+        if (tail.count() == 1) {
+            segments.add(tail);
+            while (segments.size() > maxSegments) {
+                delete(segments.remove(0));
+            }
+        }
+        lastTimestamp = ordered;
+    }
+
+    /**
+     * Deletes the segments whose last tick is older than the given timestamp. Only called by the
+     * writer thread, like {@link #append}.
+     *
+     * @return true when no segment is left
+     */
+    boolean deleteBefore(long timestamp) {
+        while (!segments.isEmpty() && segments.get(0).lastTimestamp() < timestamp) {
+            TickSegment segment = segments.remove(0);
+            if (segment == tail) {
+                tail = null;
+            }
+            delete(segment);
+        }
+        return segments.isEmpty();
+    }
+
+    // Readers still scanning the segment keep its mapping, which stays valid after the file is gone
+    private static void delete(TickSegment segment) {
+        try {
+            Files.deleteIfExists(segment.file());
+        } catch (IOException e) {
+            logger.error("Failed to delete tick segment {}: {}", segment.file(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of ticks passed to the consumer, at most {@code limit}
+     */
+    int scan(long from, long to, int limit, TickConsumer consumer) {
+        int passed = 0;
+        for (int index = firstSegment(segments, from); index < segments.size() && passed < limit; index++) {
+            TickSegment segment = segments.get(index);
+            if (segment.firstTimestamp() > to) {
+                break;
+            }
+            passed += segment.scan(from, to, limit - passed, consumer);
+        }
+        return passed;
+    }
+
+    // The last segment starting before from may still hold ticks at or after it
+    private static int firstSegment(List<TickSegment> segments, long from) {
+        int low = 0;
+        int high = segments.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (segments.get(middle).firstTimestamp() < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return Math.max(low - 1, 0);
+    }
+
+    void force() {
+        for (TickSegment segment : segments) {
+            segment.force();
+        }
+    }
+}
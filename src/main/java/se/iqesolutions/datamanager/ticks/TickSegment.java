@@ -0,0 +1,151 @@
+// File: src/main/java/se/iqesolutions/datamanager/ticks/TickSegment.java
+
+package se.iqesolutions.datamanager.ticks;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped, append-only file of ticks. The columns are stored one after another, so a
+ * time-range read binary searches the timestamp column and scans the mapped memory in place:
+ * <pre>
+ * header     magic, capacity, count                     16 bytes
+ * timestamps long per tick, never decreasing             8 × capacity
+ * prices     unscaled long per tick                      8 × capacity
+ * scales     byte per tick                               1 × capacity
+ * </pre>
+ * Only one thread appends. Readers see every tick up to the count they read first.
+ */
+final class TickSegment {
+
+    private static final int MAGIC = 0x5449434b; // "TICK"
+    private static final int HEADER_BYTES = 16;
+    private static final int CAPACITY_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int timestamps;
+    private final int prices;
+    private final int scales;
+    private volatile int count;
+
+    private TickSegment(Path file, MappedByteBuffer buffer, int capacity, int count) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.timestamps = HEADER_BYTES;
+        this.prices = timestamps + 8 * capacity;
+        this.scales = prices + 8 * capacity;
+        this.count = count;
+    }
+
+    static TickSegment create(Path file, int capacity) throws IOException {
+        MappedByteBuffer buffer = map(file, StandardOpenOption.CREATE_NEW, size(capacity));
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(COUNT_OFFSET, 0);
+        return new TickSegment(file, buffer, capacity, 0);
+    }
+
+    static TickSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer = map(file, StandardOpenOption.READ, Files.size(file));
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a tick segment");
+        }
+        int capacity = buffer.getInt(CAPACITY_OFFSET);
+        int count = buffer.getInt(COUNT_OFFSET);
+        if (capacity <= 0 || buffer.capacity() != size(capacity) || count < 0 || count > capacity) {
+            throw new IOException(file + " is corrupt");
+        }
+        return new TickSegment(file, buffer, capacity, count);
+    }
+
+    private static MappedByteBuffer map(Path file, StandardOpenOption mode, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, mode, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static long size(int capacity) {
+        return HEADER_BYTES + 17L * capacity;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstTimestamp() {
+        return count > 0 ? timestamp(0) : Long.MAX_VALUE;
+    }
+
+    long lastTimestamp() {
+        int n = count;
+        return n > 0 ? timestamp(n - 1) : Long.MIN_VALUE;
+    }
+
+    void append(long timestamp, long priceUnscaled, int priceScale) {
+        int index = count;
+        buffer.putLong(timestamps + 8 * index, timestamp);
+        buffer.putLong(prices + 8 * index, priceUnscaled);
+        buffer.put(scales + index, (byte) priceScale);
+        buffer.putInt(COUNT_OFFSET, index + 1);
+        // Publishes the tick to readers
+        count = index + 1;
+    }
+
+    /**
+     * Passes the ticks from {@code from} to {@code to}, both inclusive, to the consumer in time order.
+     *
+     * @return the number of ticks passed, at most {@code limit}
+     */
+    int scan(long from, long to, int limit, TickConsumer consumer) {
+        int n = count;
+        int passed = 0;
+        for (int index = lowerBound(from, n); index < n && passed < limit; index++, passed++) {
+            long timestamp = timestamp(index);
+            if (timestamp > to) {
+                break;
+            }
+            consumer.accept(timestamp, buffer.getLong(prices + 8 * index), buffer.get(scales + index));
+        }
+        return passed;
+    }
+
+    // First index whose timestamp is at least the given one
+    private int lowerBound(long timestamp, int n) {
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamp(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long timestamp(int index) {
+        return buffer.getLong(timestamps + 8 * index);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    Path file() {
+        return file;
+    }
+}
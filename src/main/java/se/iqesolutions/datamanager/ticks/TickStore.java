@@ -0,0 +1,274 @@
+// File: src/main/java/se/iqesolutions/datamanager/ticks/TickStore.java
+
+package se.iqesolutions.datamanager.ticks;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import se.iqesolutions.datamanager.engine.CollectedProductSink;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+import se.iqesolutions.datamanager.product.impl.TickerSymbol;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Persistent history of every {@link RealTimeSharePrice} collected from a provider, kept as
+ * memory-mapped, append-only segment files per ticker (see {@link TickSegment}).
+ * <p>
+ * Collected prices are queued and written by a single writer thread, so collection never waits
+ * for the disk. When the queue is full the tick is dropped and counted instead. Reads scan the
+ * mapped segments in place and can run while the writer appends.
+ * <p>
+ * Tickers come from requests, so the store is disabled by default and bounded when enabled: only
+ * the most recently used tickers stay mapped, each ticker keeps a limited number of segments, and
+ * the writer deletes segments older than the retention period.
+ */
+@Component
+public class TickStore implements CollectedProductSink {
+    private static final Logger logger = LoggerFactory.getLogger(TickStore.class);
+
+    private static final int MAX_SEGMENT_CAPACITY = 1 << 24;
+    private static final long POLL_MILLIS = 100;
+    private static final long RETENTION_SWEEP_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentCapacity;
+    private final int maxSegmentsPerTicker;
+    private final long retentionMillis;
+    private final BlockingQueue<PendingTick> queue;
+    // Least recently used first, guarded by itself. Opening, appending and retention all hold the lock,
+    // so a ticker never has two logs that could both append
+    private final Map<String, TickLog> logs;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private record PendingTick(String ticker, long timestamp, long priceUnscaled, int priceScale) {
+    }
+
+    @Autowired
+    public TickStore(
+            @Value("${datamanager.ticks.enabled:false}") boolean enabled,
+            @Value("${datamanager.ticks.directory:ticks}") String directory,
+            @Value("${datamanager.ticks.segment-capacity:65536}") int segmentCapacity,
+            @Value("${datamanager.ticks.max-segments-per-ticker:16}") int maxSegmentsPerTicker,
+            @Value("${datamanager.ticks.max-open-tickers:1024}") int maxOpenTickers,
+            @Value("${datamanager.ticks.retention-days:30}") int retentionDays,
+            @Value("${datamanager.ticks.queue-capacity:65536}") int queueCapacity
+    ) {
+        if (segmentCapacity <= 0 || segmentCapacity > MAX_SEGMENT_CAPACITY) {
+            throw new IllegalArgumentException("Tick segment capacity must be from 1 to " + MAX_SEGMENT_CAPACITY);
+        }
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentCapacity = segmentCapacity;
+        this.maxSegmentsPerTicker = Math.max(maxSegmentsPerTicker, 1);
+        this.retentionMillis = retentionDays > 0 ? TimeUnit.DAYS.toMillis(retentionDays) : 0;
+        int openTickers = Math.max(maxOpenTickers, 1);
+        // Evicted logs are only unmapped, their files stay and are opened again when needed
+        this.logs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TickLog> eldest) {
+                if (size() <= openTickers) {
+                    return false;
+                }
+                eldest.getValue().force();
+                return true;
+            }
+        };
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("tick-writer-");
+        threadFactory.setDaemon(true);
+        this.writer = threadFactory.newThread(this::write);
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    @Override
+    public void collected(DataProduct dataProduct) {
+        if (!enabled || !(dataProduct instanceof RealTimeSharePrice sharePrice)) {
+            return;
+        }
+        String ticker = normalize(sharePrice.tickerSymbol());
+        if (ticker == null) {
+            return;
+        }
+        PendingTick tick = new PendingTick(ticker, System.currentTimeMillis(), sharePrice.priceUnscaled(), sharePrice.priceScale());
+        if (!queue.offer(tick)) {
+            dropped.increment();
+        }
+    }
+
+    // One directory per ticker whatever its case, which would otherwise collide on case-insensitive file systems
+    private static String normalize(String ticker) {
+        // Tickers come from requests and name directories, so only plain symbols are stored
+        if (!TickerSymbol.isPlain(ticker)) {
+            return null;
+        }
+        return ticker.toUpperCase(Locale.ROOT);
+    }
+
+    private void write() {
+        long nextSweep = 0;
+        while (running || !queue.isEmpty()) {
+            if (retentionMillis > 0 && System.currentTimeMillis() >= nextSweep) {
+                deleteExpired();
+                nextSweep = System.currentTimeMillis() + RETENTION_SWEEP_MILLIS;
+            }
+            PendingTick tick;
+            try {
+                tick = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (tick == null) {
+                continue;
+            }
+            try {
+                // A log is not evicted and opened again halfway through an append
+                synchronized (logs) {
+                    log(tick.ticker()).append(tick.timestamp(), tick.priceUnscaled(), tick.priceScale());
+                }
+                written.increment();
+            } catch (IOException | UncheckedIOException e) {
+                dropped.increment();
+                logger.error("Failed to store tick of {}: {}", tick.ticker(), e.getMessage());
+            }
+        }
+        synchronized (logs) {
+            logs.values().forEach(TickLog::force);
+        }
+    }
+
+    private TickLog log(String ticker) throws IOException {
+        synchronized (logs) {
+            TickLog log = logs.get(ticker);
+            if (log == null) {
+                log = TickLog.open(directory.resolve(ticker), segmentCapacity, maxSegmentsPerTicker);
+                logs.put(ticker, log);
+            }
+            return log;
+        }
+    }
+
+    // Covers every ticker on disk, including the ones not opened since the start
+    private void deleteExpired() {
+        long oldest = System.currentTimeMillis() - retentionMillis;
+        List<Path> tickers;
+        try (Stream<Path> listed = Files.list(directory)) {
+            tickers = listed.filter(Files::isDirectory).toList();
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            logger.error("Failed to list tick directories in {}: {}", directory, e.getMessage());
+            return;
+        }
+        for (Path tickerDirectory : tickers) {
+            String ticker = tickerDirectory.getFileName().toString();
+            synchronized (logs) {
+                try {
+                    TickLog log = logs.get(ticker);
+                    boolean open = log != null;
+                    if (!open) {
+                        log = TickLog.open(tickerDirectory, segmentCapacity, maxSegmentsPerTicker);
+                    }
+                    if (log.deleteBefore(oldest) && !open) {
+                        deleteIfEmpty(tickerDirectory);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Failed to delete expired ticks of {}: {}", ticker, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void deleteIfEmpty(Path tickerDirectory) throws IOException {
+        try {
+            Files.deleteIfExists(tickerDirectory);
+        } catch (DirectoryNotEmptyException e) {
+            // Files other than segments are left alone
+        }
+    }
+
+    /**
+     * Passes the stored ticks of the ticker from {@code from} to {@code to} epoch milliseconds,
+     * both inclusive, to the consumer in time order, straight from the mapped segments.
+     *
+     * @return the number of ticks passed, at most {@code limit}
+     */
+    public int scan(String ticker, long from, long to, int limit, TickConsumer consumer) {
+        String normalized = normalize(ticker);
+        if (!enabled || normalized == null || from > to || limit <= 0) {
+            return 0;
+        }
+        TickLog log;
+        synchronized (logs) {
+            // Tickers without any stored tick are not opened, which would create their directory
+            if (!logs.containsKey(normalized) && !Files.isDirectory(directory.resolve(normalized))) {
+                return 0;
+            }
+            try {
+                log = log(normalized);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return log.scan(from, to, limit, consumer);
+    }
+
+    /**
+     * @return the stored ticks of the ticker within the range, oldest first and at most {@code limit}
+     */
+    public TickHistory query(String ticker, long from, long to, int limit) {
+        List<Tick> ticks = new ArrayList<>();
+        scan(ticker, from, to, limit, (timestamp, priceUnscaled, priceScale) ->
+                ticks.add(new Tick(timestamp, priceUnscaled, priceScale)));
+        String normalized = normalize(ticker);
+        return new TickHistory(normalized != null ? normalized : ticker, ticks);
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    // Queued ticks are written and every segment is flushed to disk before the application stops
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+// File: src/test/java/se/iqesolutions/datamanager/cache/ProductCacheStoreTest.java
+
+package se.iqesolutions.datamanager.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.iqesolutions.datamanager.product.DataProductTypeRegistry;
+import se.iqesolutions.datamanager.product.impl.Country;
+import se.iqesolutions.datamanager.product.impl.LastReportedEarningsPerShare;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+import se.iqesolutions.datamanager.product.impl.TickerSymbol;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCacheStoreTest {
+
+    private static final DataProductTypeRegistry TYPE_REGISTRY = new DataProductTypeRegistry();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testCachedProductsSurviveRestart() throws Exception {
+        long now = System.currentTimeMillis();
+        ProductCacheKey earningsKey = new ProductCacheKey(
+                LastReportedEarningsPerShare.class, new TickerSymbol("AAPL"), TickerSymbol.class.getName());
+        ProductCacheKey priceKey = new ProductCacheKey(
+                RealTimeSharePrice.class, Set.of(new TickerSymbol("NOK"), new Country("Finland")), null);
+        ProductCacheKey expiredKey = new ProductCacheKey(
+                LastReportedEarningsPerShare.class, new TickerSymbol("MSFT"), TickerSymbol.class.getName());
+        CachedProduct earnings = new CachedProduct(new LastReportedEarningsPerShare("AAPL", 35, 1), now - 30_000);
+
+        ProductCacheStore store = store(true);
+        ProductCache cache = new ProductCache(100, 3600, store);
+        cache.put(earningsKey, new CachedProduct(new LastReportedEarningsPerShare("AAPL", 30, 1), now - 60_000));
+        cache.put(earningsKey, earnings);
+        cache.put(priceKey, new CachedProduct(new RealTimeSharePrice("NOK", 500, 1), now));
+        cache.put(expiredKey, new CachedProduct(new LastReportedEarningsPerShare("MSFT", 40, 1), now - 7_200_000));
+        store.shutdown();
+        assertEquals(4, store.getWrittenCount());
+
+        ProductCacheStore reopened = store(true);
+        ProductCache restarted = new ProductCache(100, 3600, reopened);
+        try {
+            // The latest entry of a key wins and keeps its original fetch time
+            assertEquals(earnings, restarted.get(earningsKey, 60));
+            assertNull(restarted.get(earningsKey, 10));
+            assertEquals(new RealTimeSharePrice("NOK", 500, 1), restarted.get(priceKey, 60).dataProduct());
+            assertNull(restarted.get(expiredKey, Integer.MAX_VALUE));
+        } finally {
+            reopened.shutdown();
+        }
+    }
+
+    @Test
+    public void testNothingIsStoredWhenDisabled() throws Exception {
+        ProductCacheStore store = store(false);
+        ProductCache cache = new ProductCache(100, 3600, store);
+        ProductCacheKey key = new ProductCacheKey(RealTimeSharePrice.class, new TickerSymbol("AAPL"), null);
+        cache.put(key, new CachedProduct(new RealTimeSharePrice("AAPL", 1000, 1), System.currentTimeMillis()));
+        store.shutdown();
+
+        assertEquals(0, store.getWrittenCount());
+        assertNull(new ProductCache(100, 3600, store(true)).get(key, 60));
+    }
+
+    @Test
+    public void testWritingContinuesAfterRestartOnceOldSegmentsAreDeleted() throws Exception {
+        long now = System.currentTimeMillis();
+        ProductCacheKey key = new ProductCacheKey(
+                LastReportedEarningsPerShare.class, new TickerSymbol("AAPL"), TickerSymbol.class.getName());
+
+        // Several segments of 1 MB, of which only the last two are kept
+        ProductCacheStore store = store(2, 10_000);
+        ProductCache cache = new ProductCache(100, 3600, store);
+        cache.put(key, new CachedProduct(new LastReportedEarningsPerShare("AAPL", 30, 1), now));
+        fill(cache, 1500, now);
+        store.shutdown();
+        List<String> kept = segments();
+        assertEquals(2, kept.size());
+        assertNotEquals("0000000000.products", kept.get(0));
+
+        // The next segment follows the highest sequence on disk rather than the number of files
+        ProductCacheStore reopened = store(2, 10_000);
+        ProductCache restarted = new ProductCache(100, 3600, reopened);
+        fill(restarted, 1000, now);
+        restarted.put(key, new CachedProduct(new LastReportedEarningsPerShare("AAPL", 35, 1), now));
+        reopened.shutdown();
+        assertEquals(0, reopened.getDroppedCount());
+        List<String> written = segments();
+        assertEquals(2, written.size());
+        assertTrue(written.get(0).compareTo(kept.get(1)) >= 0 && written.get(1).compareTo(kept.get(1)) > 0);
+
+        ProductCacheStore again = store(2, 10_000);
+        try {
+            assertEquals(new LastReportedEarningsPerShare("AAPL", 35, 1), new ProductCache(100, 3600, again).get(key, 60).dataProduct());
+        } finally {
+            again.shutdown();
+        }
+    }
+
+    // Entries of a few KB each, one per ticker
+    private static void fill(ProductCache cache, int count, long fetchedAtMillis) {
+        String padding = "X".repeat(1000);
+        for (int i = 0; i < count; i++) {
+            String ticker = padding + i;
+            cache.put(new ProductCacheKey(LastReportedEarningsPerShare.class, new TickerSymbol(ticker), TickerSymbol.class.getName()),
+                    new CachedProduct(new LastReportedEarningsPerShare(ticker, i, 1), fetchedAtMillis));
+        }
+    }
+
+    private List<String> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private ProductCacheStore store(boolean enabled) {
+        return new ProductCacheStore(enabled, directory.toString(), 1, 16, 100, 3600, new ObjectMapper(), TYPE_REGISTRY);
+    }
+
+    private ProductCacheStore store(int maxSegments, int queueCapacity) {
+        return new ProductCacheStore(true, directory.toString(), 1, maxSegments, queueCapacity, 3600, new ObjectMapper(), TYPE_REGISTRY);
+    }
+}
@@ -5,30 +5,74 @@ package se.iqesolutions.datamanager.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import se.iqesolutions.datamanager.DataManagerApplication;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.*;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import se.iqesolutions.datamanager.DataManagerBatchResponse;
+import se.iqesolutions.datamanager.DataManagerRequest;
 import se.iqesolutions.datamanager.DataManagerResponse;
+import se.iqesolutions.datamanager.DataManagerStreamRecord;
+import se.iqesolutions.datamanager.cache.ProductCache;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.engine.Dataflow;
+import se.iqesolutions.datamanager.engine.ExecutionPlanner;
+import se.iqesolutions.datamanager.engine.ExecutionResult;
 import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.Country;
+import se.iqesolutions.datamanager.product.impl.LastReportedEarningsPerShare;
 import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
 import se.iqesolutions.datamanager.product.impl.StockScore;
 import se.iqesolutions.datamanager.product.impl.TickerSymbol;
+import se.iqesolutions.datamanager.service.DataManagerService;
+import se.iqesolutions.datamanager.ticks.Tick;
+import se.iqesolutions.datamanager.ticks.TickHistory;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest(classes = DataManagerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(
+        classes = DataManagerApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "datamanager.ticks.enabled=true",
+                "datamanager.ticks.directory=target/ticks/${random.uuid}"
+        }
+)
 public class DataControllerIntegrationTest {
 
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private DataManagerService dataManagerService;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
+    @Autowired
+    private ExecutionPlanner executionPlanner;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     public void testCollectData_Successful() {
         String requestJson = """
@@ -68,6 +112,41 @@ public class DataControllerIntegrationTest {
         assertTrue(responseBody.contains("\"failedDataProducts\":{}"));
     }
 
+    @Test
+    public void testCollectData_RequestedByAlias() {
+        String requestJson = """
+        {
+          "requestedDataProducts": {
+            "RealTimeSharePrice": {
+              "acceptableMethods": ["REAL_TIME_FEED"],
+              "cacheKey": "se.iqesolutions.datamanager.product.impl.TickerSymbol",
+              "maxCacheAgeSeconds": 0,
+              "maxCost": 1.0,
+              "maxTime": 5.0
+            }
+          },
+          "alreadyAvailableDataProducts": [
+            {
+              "@class": "TickerSymbol",
+              "symbol": "AAPL"
+            }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<DataManagerResponse> response =
+                restTemplate.postForEntity("/data/collect", new HttpEntity<>(requestJson, headers), DataManagerResponse.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        DataManagerResponse body = response.getBody();
+        assertNotNull(body);
+        assertTrue(body.failedDataProducts().isEmpty());
+        assertTrue(body.collectedDataProducts().contains(new RealTimeSharePrice("AAPL", BigDecimal.valueOf(100.0))));
+    }
+
     @Test
     public void testCollectData_MissingDependency() {
         String requestJson = """
@@ -181,6 +260,18 @@ public class DataControllerIntegrationTest {
         );
     }
 
+    @Test
+    public void testCollectData_ClassOutsideRegistryNotFound() {
+        // Existing classes that are not data products are never loaded for a request
+        DataProductConstraint constraint = new DataProductConstraint(List.of("REAL_TIME_FEED"), null, 0, 1.0, 5.0, 0.5, 0.5);
+        DataManagerRequest request = new DataManagerRequest(Map.of("java.lang.String", constraint), List.of());
+
+        DataManagerResponse response = restTemplate.postForObject("/data/collect", request, DataManagerResponse.class);
+
+        assertTrue(response.collectedDataProducts().isEmpty());
+        assertEquals(Map.of("java.lang.String", "Class java.lang.String not found"), response.failedDataProducts());
+    }
+
 
     @Test
     public void testCollectData_ConstraintViolation() {
@@ -733,6 +824,118 @@ public class DataControllerIntegrationTest {
         assertTrue(dataManagerResponse.failedDataProducts().isEmpty());
     }
 
+    @Test
+    public void testCollectData_ProviderCapabilitySkipsNonFinnishShare() throws Exception {
+        // FinnishStockDataProvider ranks first on cost but cannot serve a US share
+        String requestJson = """
+        {
+          "requestedDataProducts": {
+            "se.iqesolutions.datamanager.product.impl.RealTimeSharePrice": {
+              "acceptableMethods": ["REAL_TIME_FEED"],
+              "maxCost": 1.0,
+              "maxTime": 10.0,
+              "costWeight": 0.9,
+              "timeWeight": 0.1
+            }
+          },
+          "alreadyAvailableDataProducts": [
+            {
+              "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol",
+              "symbol": "AAPL"
+            },
+            {
+              "@class": "se.iqesolutions.datamanager.product.impl.Country",
+              "name": "USA"
+            }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> response = restTemplate.postForEntity("/data/collect", new HttpEntity<>(requestJson, headers), String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        DataManagerResponse dataManagerResponse = objectMapper.readValue(response.getBody(), DataManagerResponse.class);
+
+        dataManagerResponse.collectedDataProducts().stream()
+                .filter(dp -> dp instanceof RealTimeSharePrice)
+                .map(dp -> (RealTimeSharePrice) dp)
+                .forEach(sharePrice -> assertEquals(BigDecimal.valueOf(100.0), sharePrice.price()));
+        assertTrue(dataManagerResponse.collectedDataProducts().stream().anyMatch(dp -> dp instanceof RealTimeSharePrice));
+        assertTrue(dataManagerResponse.failedDataProducts().isEmpty());
+    }
+
+    @Test
+    public void testCollectData_ProviderCapabilityDecidedByTickerWithoutCountry() throws Exception {
+        String requestJson = """
+        {
+          "requestedDataProducts": {
+            "se.iqesolutions.datamanager.product.impl.RealTimeSharePrice": {
+              "acceptableMethods": ["REAL_TIME_FEED"],
+              "maxCost": 1.0,
+              "maxTime": 10.0,
+              "costWeight": 0.9,
+              "timeWeight": 0.1
+            }
+          },
+          "alreadyAvailableDataProducts": [
+            {
+              "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol",
+              "symbol": "AAPL"
+            }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        long countryCalls = providerCalls("CountryProvider");
+        ResponseEntity<String> response = restTemplate.postForEntity("/data/collect", new HttpEntity<>(requestJson, headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        // A US ticker rules out FinnishStockDataProvider before its Country dependency is collected
+        DataManagerResponse dataManagerResponse = new ObjectMapper().readValue(response.getBody(), DataManagerResponse.class);
+        assertTrue(dataManagerResponse.collectedDataProducts().contains(new RealTimeSharePrice("AAPL", BigDecimal.valueOf(100.0))));
+        assertTrue(dataManagerResponse.collectedDataProducts().stream().noneMatch(dp -> dp instanceof Country));
+        assertEquals(countryCalls, providerCalls("CountryProvider"));
+    }
+
+    @Test
+    public void testCollectData_ProviderCapabilityServesPlainSymbolFromFinland() {
+        // The supplied Country decides over what the ticker looks like
+        RealTimeSharePrice sharePrice = collectPriceByCost(new TickerSymbol("ORNBV"), new Country("Finland"));
+
+        assertEquals(BigDecimal.valueOf(50.0), sharePrice.price());
+    }
+
+    @Test
+    public void testCollectData_ProviderCapabilitySkipsHelsinkiSymbolFromSweden() {
+        RealTimeSharePrice sharePrice = collectPriceByCost(new TickerSymbol("NOK"), new Country("Sweden"));
+
+        assertEquals(BigDecimal.valueOf(100.0), sharePrice.price());
+    }
+
+    // FinnishStockDataProvider ranks first on cost, and quotes 50.0 where the real-time feed quotes 100.0
+    private RealTimeSharePrice collectPriceByCost(TickerSymbol tickerSymbol, Country country) {
+        DataProductConstraint byCost = new DataProductConstraint(List.of("REAL_TIME_FEED"), null, 0, 1.0, 10.0, 0.9, 0.1);
+        DataManagerRequest request = new DataManagerRequest(
+                Map.of(RealTimeSharePrice.class.getName(), byCost), List.of(tickerSymbol, country));
+
+        DataManagerResponse response = restTemplate.postForObject("/data/collect", request, DataManagerResponse.class);
+
+        assertTrue(response.failedDataProducts().isEmpty());
+        return response.collectedDataProducts().stream()
+                .filter(dp -> dp instanceof RealTimeSharePrice)
+                .map(dp -> (RealTimeSharePrice) dp)
+                .findFirst()
+                .orElseThrow();
+    }
+
     /**
      * Test 5: Max Cost and Max Time Constraint Violations
      */
@@ -1173,4 +1376,401 @@ public class DataControllerIntegrationTest {
         // Assert that no exceptions occurred
         assertTrue(exceptions.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCollectData_RepeatedRequestShapeUsesCachedPlan() throws Exception {
+        String requestTemplate = """
+        {
+          "requestedDataProducts": {
+            "se.iqesolutions.datamanager.product.impl.StockScore": {
+              "acceptableMethods": ["CALCULATION"],
+              "maxCost": 1.0,
+              "maxTime": 9.5
+            }
+          },
+          "alreadyAvailableDataProducts": [
+            {
+              "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol",
+              "symbol": "%s"
+            }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> first = restTemplate.postForEntity("/data/collect",
+                new HttpEntity<>(String.format(requestTemplate, "AAPL"), headers), String.class);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        long hitsBefore = executionPlanner.getPlanCache().getHitCount();
+
+        // Same shape for a different ticker must reuse the plan
+        ResponseEntity<String> second = restTemplate.postForEntity("/data/collect",
+                new HttpEntity<>(String.format(requestTemplate, "TSLA"), headers), String.class);
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertTrue(executionPlanner.getPlanCache().getHitCount() > hitsBefore);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        DataManagerResponse dataManagerResponse = objectMapper.readValue(second.getBody(), DataManagerResponse.class);
+        assertTrue(dataManagerResponse.collectedDataProducts().stream()
+                .anyMatch(dp -> dp instanceof StockScore && ((StockScore) dp).tickerSymbol().equals("TSLA")));
+        assertTrue(dataManagerResponse.failedDataProducts().isEmpty());
+    }
+
+    @Test
+    public void testCollectData_CachedEarningsWithinMaxCacheAge() throws Exception {
+        String requestJson = """
+        {
+          "requestedDataProducts": {
+            "se.iqesolutions.datamanager.product.impl.LastReportedEarningsPerShare": {
+              "acceptableMethods": ["FINANCIAL_REPORT"],
+              "cacheKey": "se.iqesolutions.datamanager.product.impl.TickerSymbol",
+              "maxCacheAgeSeconds": 3600,
+              "maxCost": 1.0,
+              "maxTime": 5.0
+            }
+          },
+          "alreadyAvailableDataProducts": [
+            {
+              "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol",
+              "symbol": "MSFT"
+            }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<String> entity = new HttpEntity<>(requestJson, headers);
+
+        ResponseEntity<String> first = restTemplate.postForEntity("/data/collect", entity, String.class);
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        long hitsBefore = productCache.getStats().hitCount();
+
+        ResponseEntity<String> second = restTemplate.postForEntity("/data/collect", entity, String.class);
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertTrue(productCache.getStats().hitCount() > hitsBefore);
+
+        // The cached response is identical to the fetched one
+        assertEquals(first.getBody(), second.getBody());
+    }
+
+    @Test
+    public void testCollectData_CacheKeyByAliasMatchesClassName() {
+        DataProductConstraint byAlias = new DataProductConstraint(List.of("FINANCIAL_REPORT"), "TickerSymbol", 3600, 1.0, 5.0, 0.5, 0.5);
+        DataProductConstraint byClassName = new DataProductConstraint(
+                List.of("FINANCIAL_REPORT"), TickerSymbol.class.getName(), 3600, 1.0, 5.0, 0.5, 0.5);
+
+        long earningsCalls = providerCalls("EarningsDataProvider");
+        DataManagerResponse first = restTemplate.postForObject("/data/collect", new DataManagerRequest(
+                Map.of(LastReportedEarningsPerShare.class.getName(), byAlias), List.of(new TickerSymbol("ORCL"))), DataManagerResponse.class);
+        DataManagerResponse second = restTemplate.postForObject("/data/collect", new DataManagerRequest(
+                Map.of(LastReportedEarningsPerShare.class.getName(), byClassName), List.of(new TickerSymbol("ORCL"))), DataManagerResponse.class);
+
+        // Both name the ticker as the entity, so the second request is served from the cache
+        assertEquals(earningsCalls + 1, providerCalls("EarningsDataProvider"));
+        assertEquals(first.collectedDataProducts(), second.collectedDataProducts());
+    }
+
+    @Test
+    public void testCollectData_DependenciesCachedWithinRequestedMaxCacheAge() throws Exception {
+        String requestJson = """
+        {
+          "requestedDataProducts": {
+            "se.iqesolutions.datamanager.product.impl.StockScore": {
+              "acceptableMethods": ["CALCULATION"],
+              "cacheKey": "se.iqesolutions.datamanager.product.impl.TickerSymbol",
+              "maxCacheAgeSeconds": 3600,
+              "maxCost": 1.0,
+              "maxTime": 9.5
+            }
+          },
+          "alreadyAvailableDataProducts": [
+            {
+              "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol",
+              "symbol": "AMZN"
+            }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<String> entity = new HttpEntity<>(requestJson, headers);
+
+        long earningsCalls = providerCalls("EarningsDataProvider");
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity("/data/collect", entity, String.class).getStatusCode());
+        assertEquals(earningsCalls + 1, providerCalls("EarningsDataProvider"));
+
+        // The earnings collected for the score are cached under the score's cacheKey and max age
+        String earningsJson = requestJson
+                .replace("se.iqesolutions.datamanager.product.impl.StockScore", "se.iqesolutions.datamanager.product.impl.LastReportedEarningsPerShare")
+                .replace("CALCULATION", "FINANCIAL_REPORT");
+        ResponseEntity<String> earnings = restTemplate.postForEntity("/data/collect", new HttpEntity<>(earningsJson, headers), String.class);
+        assertEquals(HttpStatus.OK, earnings.getStatusCode());
+        assertEquals(earningsCalls + 1, providerCalls("EarningsDataProvider"));
+
+        DataManagerResponse dataManagerResponse = new ObjectMapper().readValue(earnings.getBody(), DataManagerResponse.class);
+        assertTrue(dataManagerResponse.collectedDataProducts().stream().anyMatch(dp -> dp instanceof LastReportedEarningsPerShare));
+    }
+
+    @Test
+    public void testCollectDataBatch_StockScoreForManyTickers() throws Exception {
+        String requestJson = """
+        {
+          "requestedDataProducts": {
+            "se.iqesolutions.datamanager.product.impl.StockScore": {
+              "acceptableMethods": ["CALCULATION"],
+              "maxCost": 1.0,
+              "maxTime": 10.0
+            }
+          },
+          "entities": [
+            {
+              "entityId": "apple",
+              "alreadyAvailableDataProducts": [
+                { "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol", "symbol": "AAPL" }
+              ]
+            },
+            {
+              "alreadyAvailableDataProducts": [
+                { "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol", "symbol": "NOK" }
+              ]
+            },
+            {
+              "entityId": "unknown",
+              "alreadyAvailableDataProducts": []
+            }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<String> entity = new HttpEntity<>(requestJson, headers);
+
+        ResponseEntity<String> response = restTemplate.postForEntity("/data/collect/batch", entity, String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        DataManagerBatchResponse batchResponse = objectMapper.readValue(response.getBody(), DataManagerBatchResponse.class);
+        assertEquals(3, batchResponse.results().size());
+
+        // Results are returned per entity, in request order
+        DataManagerBatchResponse.EntityResult apple = batchResponse.results().get(0);
+        assertEquals("apple", apple.entityId());
+        assertTrue(apple.collectedDataProducts().stream()
+                .anyMatch(dp -> dp instanceof StockScore && ((StockScore) dp).tickerSymbol().equals("AAPL")));
+        assertTrue(apple.failedDataProducts().isEmpty());
+
+        DataManagerBatchResponse.EntityResult nokia = batchResponse.results().get(1);
+        assertEquals("1", nokia.entityId());
+        assertTrue(nokia.collectedDataProducts().stream()
+                .anyMatch(dp -> dp instanceof StockScore && ((StockScore) dp).tickerSymbol().equals("NOK")));
+        assertTrue(nokia.failedDataProducts().isEmpty());
+
+        // An entity without a ticker fails on its own without failing the batch
+        DataManagerBatchResponse.EntityResult unknown = batchResponse.results().get(2);
+        assertEquals("unknown", unknown.entityId());
+        assertTrue(unknown.collectedDataProducts().isEmpty());
+        assertTrue(unknown.failedDataProducts().containsKey("se.iqesolutions.datamanager.product.impl.StockScore"));
+    }
+
+    @Test
+    public void testCollectData_RecordsMetrics() {
+        String requestJson = """
+        {
+          "requestedDataProducts": {
+            "se.iqesolutions.datamanager.product.impl.StockScore": {
+              "acceptableMethods": ["CALCULATION"],
+              "maxCost": 1.0,
+              "maxTime": 10.0
+            }
+          },
+          "alreadyAvailableDataProducts": [
+            { "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol", "symbol": "MSFT" }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> response = restTemplate.postForEntity("/data/collect", new HttpEntity<>(requestJson, headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        Timer scoring = meterRegistry.find("datamanager.provider.calls")
+                .tags("provider", "StockScoringProvider", "product", "StockScore", "outcome", "success")
+                .timer();
+        assertNotNull(scoring);
+        assertTrue(scoring.count() > 0);
+        assertTrue(meterRegistry.get("datamanager.planning").timers().stream().mapToLong(Timer::count).sum() > 0);
+        assertTrue(meterRegistry.get("datamanager.plan.dependency.depth").summary().max() >= 3);
+        assertNotNull(meterRegistry.find("datamanager.cache.requests").tags("cache", "plan", "result", "hit").functionCounter());
+    }
+
+    @Test
+    public void testCollectDataStream_WritesProductsAsResolvedAndEndsWithSummary() throws Exception {
+        String requestJson = """
+        {
+          "requestedDataProducts": {
+            "se.iqesolutions.datamanager.product.impl.StockScore": {
+              "acceptableMethods": ["CALCULATION"],
+              "maxCost": 1.0,
+              "maxTime": 10.0
+            },
+            "se.iqesolutions.datamanager.product.impl.MissingDataProduct": {
+              "acceptableMethods": ["CALCULATION"],
+              "maxCost": 1.0,
+              "maxTime": 10.0
+            }
+          },
+          "alreadyAvailableDataProducts": [
+            { "@class": "se.iqesolutions.datamanager.product.impl.TickerSymbol", "symbol": "AAPL" }
+          ]
+        }
+        """;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        ResponseEntity<String> response = restTemplate.postForEntity("/data/collect/stream", new HttpEntity<>(requestJson, headers), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<DataManagerStreamRecord> records = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            records.add(objectMapper.readValue(line, DataManagerStreamRecord.class));
+        }
+
+        // Failures known before collecting are written first, the summary last
+        assertInstanceOf(DataManagerStreamRecord.Failed.class, records.get(0));
+        assertEquals("se.iqesolutions.datamanager.product.impl.MissingDataProduct",
+                ((DataManagerStreamRecord.Failed) records.get(0)).dataProduct());
+        DataManagerStreamRecord.Summary summary = (DataManagerStreamRecord.Summary) records.get(records.size() - 1);
+
+        List<String> collected = records.stream()
+                .filter(record -> record instanceof DataManagerStreamRecord.Collected)
+                .map(record -> ((DataManagerStreamRecord.Collected) record).dataProduct().getClass().getName())
+                .toList();
+        assertEquals(summary.collectedDataProducts(), collected.size());
+        assertEquals(1, summary.failedDataProducts());
+        assertEquals(TickerSymbol.class.getName(), collected.get(0));
+        assertEquals(StockScore.class.getName(), collected.get(collected.size() - 1));
+        assertTrue(collected.indexOf(RealTimeSharePrice.class.getName()) < collected.indexOf(StockScore.class.getName()));
+    }
+
+    @Test
+    public void testDataflow_NewPriceOnlyRecomputesStockScore() {
+        DataProductConstraint calculation = new DataProductConstraint(List.of("CALCULATION"), null, 0, 1.0, 10.0, 0.5, 0.5);
+        DataManagerRequest request = new DataManagerRequest(
+                Map.of(StockScore.class.getName(), calculation), List.of(new TickerSymbol("SAP")));
+        Dataflow dataflow = dataManagerService.collectDataflow(request).join();
+        StockScore initial = (StockScore) dataflow.getValue(StockScore.class);
+        assertNotNull(initial);
+
+        long earningsCalls = providerCalls("EarningsDataProvider");
+        long scoringCalls = providerCalls("StockScoringProvider");
+        ExecutionResult recomputed = dataflow.update(new RealTimeSharePrice("SAP", BigDecimal.valueOf(10.0))).join();
+
+        // Only the score depends on the price, earnings, country and configuration are reused
+        assertEquals(1, recomputed.collectedDataProducts().size());
+        StockScore updated = (StockScore) recomputed.collectedDataProducts().get(0);
+        assertNotEquals(initial.score(), updated.score());
+        assertSame(updated, dataflow.getValue(StockScore.class));
+        assertEquals(earningsCalls, providerCalls("EarningsDataProvider"));
+        assertEquals(scoringCalls + 1, providerCalls("StockScoringProvider"));
+    }
+
+    @Test
+    public void testDataflow_UnknownProductIsReportedAsFailed() {
+        DataProductConstraint calculation = new DataProductConstraint(List.of("CALCULATION"), null, 0, 1.0, 10.0, 0.5, 0.5);
+        Map<String, DataProductConstraint> requested = new LinkedHashMap<>();
+        requested.put(StockScore.class.getName(), calculation);
+        requested.put("StockScor", calculation);
+
+        Dataflow dataflow = dataManagerService.collectDataflow(
+                new DataManagerRequest(requested, List.of(new TickerSymbol("SAP")))).join();
+
+        assertNotNull(dataflow.getValue(StockScore.class));
+        assertEquals(Map.of("StockScor", "Class StockScor not found"), dataflow.getFailedDataProducts());
+    }
+
+    @Test
+    public void testCollectData_CborWithShortTypeTags() throws Exception {
+        assertBinaryRoundTrip(MediaType.APPLICATION_CBOR, cborHttpMessageConverter.getObjectMapper());
+    }
+
+    @Test
+    public void testCollectData_SmileWithShortTypeTags() throws Exception {
+        assertBinaryRoundTrip(new MediaType("application", "x-jackson-smile"), smileHttpMessageConverter.getObjectMapper());
+    }
+
+    private void assertBinaryRoundTrip(MediaType mediaType, ObjectMapper binaryMapper) throws Exception {
+        DataProductConstraint realTime = new DataProductConstraint(List.of("REAL_TIME_FEED"), null, 0, 1.0, 5.0, 0.5, 0.5);
+        Map<String, DataProductConstraint> requested = new LinkedHashMap<>();
+        requested.put(RealTimeSharePrice.class.getName(), realTime);
+        requested.put("se.iqesolutions.datamanager.product.impl.MissingDataProduct", realTime);
+        byte[] requestBody = binaryMapper.writeValueAsBytes(new DataManagerRequest(requested, List.of(new TickerSymbol("AAPL"))));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        headers.setAccept(List.of(mediaType));
+        ResponseEntity<byte[]> response = restTemplate.postForEntity("/data/collect", new HttpEntity<>(requestBody, headers), byte[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(mediaType.isCompatibleWith(response.getHeaders().getContentType()));
+        // Known data products travel as short tags in both directions, unknown names as they are
+        String sentBytes = new String(requestBody, StandardCharsets.ISO_8859_1);
+        String receivedBytes = new String(response.getBody(), StandardCharsets.ISO_8859_1);
+        for (String bytes : List.of(sentBytes, receivedBytes)) {
+            assertFalse(bytes.contains(RealTimeSharePrice.class.getName()));
+            assertFalse(bytes.contains(TickerSymbol.class.getName()));
+            assertTrue(bytes.contains("RealTimeSharePrice"));
+        }
+
+        DataManagerResponse dataManagerResponse = binaryMapper.readValue(response.getBody(), DataManagerResponse.class);
+        assertTrue(dataManagerResponse.collectedDataProducts().contains(new RealTimeSharePrice("AAPL", BigDecimal.valueOf(100.0))));
+        assertEquals(Set.of("se.iqesolutions.datamanager.product.impl.MissingDataProduct"), dataManagerResponse.failedDataProducts().keySet());
+    }
+
+    @Test
+    public void testGetTicks_CollectedPricesAreStored() {
+        long before = System.currentTimeMillis();
+        DataProductConstraint realTime = new DataProductConstraint(List.of("REAL_TIME_FEED"), null, 0, 1.0, 5.0, 0.5, 0.5);
+        DataManagerRequest request = new DataManagerRequest(
+                Map.of(RealTimeSharePrice.class.getName(), realTime), List.of(new TickerSymbol("TICKS")));
+        dataManagerService.collectDataProducts(request);
+        dataManagerService.collectDataProducts(request);
+
+        // Ticks are written in the background, so wait until both show up
+        TickHistory history = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (true) {
+                TickHistory ticks = restTemplate.getForObject("/data/ticks/TICKS?from=" + before, TickHistory.class);
+                if (ticks.ticks().size() == 2) {
+                    return ticks;
+                }
+                Thread.sleep(50);
+            }
+        });
+
+        assertEquals("TICKS", history.tickerSymbol());
+        for (Tick tick : history.ticks()) {
+            assertEquals(BigDecimal.valueOf(100.0), tick.price());
+            assertTrue(tick.timestamp() >= before);
+        }
+        assertEquals(1, restTemplate.getForObject("/data/ticks/TICKS?limit=1", TickHistory.class).ticks().size());
+        assertTrue(restTemplate.getForObject("/data/ticks/TICKS?to=" + (before - 1), TickHistory.class).ticks().isEmpty());
+    }
+
+    private long providerCalls(String provider) {
+        return meterRegistry.find("datamanager.provider.calls").tag("provider", provider).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
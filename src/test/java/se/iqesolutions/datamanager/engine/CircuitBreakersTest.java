@@ -0,0 +1,53 @@
+// File: src/test/java/se/iqesolutions/datamanager/engine/CircuitBreakersTest.java
+
+package se.iqesolutions.datamanager.engine;
+
+import org.junit.jupiter.api.Test;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+import se.iqesolutions.datamanager.provider.ProviderBinding;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakersTest {
+
+    private final ProviderBinding binding = new ProviderBinding(
+            null, null, "RealTimeStockDataFeedProvider", RealTimeSharePrice.class, List.of(), List.of("REAL_TIME_FEED"), 1.0, 0.5);
+
+    @Test
+    public void testOpensWhenFailureRateIsReached() {
+        CircuitBreakers circuitBreakers = new CircuitBreakers(true, 10, 4, 50, 60_000, 1);
+        long version = circuitBreakers.getVersion();
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(circuitBreakers.tryAcquire(binding));
+            circuitBreakers.onFailure(binding);
+        }
+
+        assertFalse(circuitBreakers.tryAcquire(binding));
+        assertTrue(circuitBreakers.isOpen(binding));
+        assertTrue(circuitBreakers.getVersion() > version);
+        assertEquals(CircuitBreakers.State.OPEN, circuitBreakers.getStatuses().get(0).state());
+    }
+
+    @Test
+    public void testTrialCallsDecideRecovery() {
+        CircuitBreakers circuitBreakers = new CircuitBreakers(true, 10, 2, 50, 0, 2);
+        for (int i = 0; i < 2; i++) {
+            circuitBreakers.tryAcquire(binding);
+            circuitBreakers.onFailure(binding);
+        }
+
+        // Cool-down of zero lets the trial calls through at once, but no more than configured
+        assertTrue(circuitBreakers.tryAcquire(binding));
+        assertTrue(circuitBreakers.tryAcquire(binding));
+        assertFalse(circuitBreakers.tryAcquire(binding));
+        assertEquals(CircuitBreakers.State.HALF_OPEN, circuitBreakers.getStatuses().get(0).state());
+
+        circuitBreakers.onSuccess(binding);
+        circuitBreakers.onSuccess(binding);
+        assertEquals(CircuitBreakers.State.CLOSED, circuitBreakers.getStatuses().get(0).state());
+        assertTrue(circuitBreakers.tryAcquire(binding));
+    }
+}
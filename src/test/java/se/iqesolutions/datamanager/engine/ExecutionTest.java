@@ -0,0 +1,194 @@
+// File: src/test/java/se/iqesolutions/datamanager/engine/ExecutionTest.java
+
+package se.iqesolutions.datamanager.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import se.iqesolutions.datamanager.cache.ProductCache;
+import se.iqesolutions.datamanager.constraints.DataProductConstraint;
+import se.iqesolutions.datamanager.metrics.CollectionMetrics;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.DataProductTypeRegistry;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+import se.iqesolutions.datamanager.product.impl.TickerSymbol;
+import se.iqesolutions.datamanager.provider.DataProvider;
+import se.iqesolutions.datamanager.provider.ProviderBinding;
+import se.iqesolutions.datamanager.provider.ProviderRegistry;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionTest {
+
+    private static final DataProductTypeRegistry TYPE_REGISTRY = new DataProductTypeRegistry();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CircuitBreakers circuitBreakers = new CircuitBreakers(true, 20, 10, 50, 30_000, 3);
+    private final CollectionMetrics metrics = new CollectionMetrics(new SimpleMeterRegistry());
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOverrunningProviderIsCancelledForTheNextOne() throws Exception {
+        PriceProvider slow = new PriceProvider(0.05, 0.0, 10_000);
+        PriceProvider fast = new PriceProvider(0.1, 1.0, 0);
+
+        ExecutionResult result = execute(List.of(slow, fast), 3, false, 5.0);
+
+        assertEquals(List.of(new TickerSymbol("AAPL"), new RealTimeSharePrice("AAPL", BigDecimal.valueOf(100.0))),
+                result.collectedDataProducts());
+        assertTrue(result.failedDataProducts().isEmpty());
+        assertTrue(slow.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDeadlineReturnsPartialResults() {
+        PriceProvider slow = new PriceProvider(0.05, 0.0, 10_000);
+
+        long started = System.nanoTime();
+        ExecutionResult result = execute(List.of(slow), 0, false, 0.2);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5_000);
+        assertEquals(List.of(new TickerSymbol("AAPL")), result.collectedDataProducts());
+        assertEquals(Execution.DEADLINE_REASON, result.failedDataProducts().get(RealTimeSharePrice.class.getName()));
+    }
+
+    @Test
+    public void testHedgedCallTakesFirstResultAndCancelsTheOther() throws Exception {
+        PriceProvider slow = new PriceProvider(0.05, 0.0, 10_000);
+        PriceProvider fast = new PriceProvider(0.1, 1.0, 0);
+
+        long started = System.nanoTime();
+        ExecutionResult result = execute(List.of(slow, fast), 0, true, 5.0);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5_000);
+        assertTrue(result.collectedDataProducts().contains(new RealTimeSharePrice("AAPL", BigDecimal.valueOf(100.0))));
+        assertTrue(slow.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testObservedLatencyOutweighsExpectedTime() {
+        PriceProvider slowInPractice = new PriceProvider(0.1, 0.0, 0);
+        PriceProvider fastInPractice = new PriceProvider(0.5, 0.0, 0);
+        ProviderRegistry registry = new ProviderRegistry(List.of(slowInPractice, fastInPractice), executor);
+        ProviderStatistics statistics = new ProviderStatistics(20, 0.2, 0.05, 0);
+        ExecutionPlanner planner = new ExecutionPlanner(registry, statistics, circuitBreakers, metrics, 16);
+        assertSame(slowInPractice, firstCandidate(planner));
+
+        List<ProviderBinding> bindings = registry.getBindings(RealTimeSharePrice.class);
+        for (int i = 0; i < 100; i++) {
+            for (ProviderBinding binding : bindings) {
+                statistics.started(binding);
+                statistics.succeeded(binding, binding.provider() == slowInPractice ? 3_000_000_000L : 10_000_000L);
+            }
+        }
+
+        assertSame(fastInPractice, firstCandidate(planner));
+    }
+
+    @Test
+    public void testCoalescedCallersPassOneCollectedProductOn() {
+        PriceProvider slow = new PriceProvider(0.5, 0.0, 300);
+        ProviderStatistics statistics = new ProviderStatistics(20, 0.2, 0.05, 1000);
+        ExecutionPlanner planner = new ExecutionPlanner(new ProviderRegistry(List.of(slow), executor), statistics, circuitBreakers, metrics, 0);
+        List<DataProduct> collected = new CopyOnWriteArrayList<>();
+        ExecutionEngine engine = new ExecutionEngine(
+                executor, new ProductCache(100, 60), TYPE_REGISTRY, statistics, circuitBreakers, metrics, collected::add, true, 5, 500, 0, false, 95, 20);
+
+        DataProductConstraint constraint = new DataProductConstraint(List.of("REAL_TIME"), null, 0, 10.0, 5.0, 1.0, 1.0);
+        ExecutionPlan plan = planner.plan(Map.of(RealTimeSharePrice.class, constraint), Set.of(TickerSymbol.class));
+        CompletableFuture<ExecutionResult> first = engine.execute(plan, List.of(new TickerSymbol("AAPL")));
+        CompletableFuture<ExecutionResult> second = engine.execute(plan, List.of(new TickerSymbol("AAPL")));
+
+        // Both requests get the price, but only the one upstream call reaches the sink
+        RealTimeSharePrice price = new RealTimeSharePrice("AAPL", BigDecimal.valueOf(100.0));
+        assertTrue(first.join().collectedDataProducts().contains(price));
+        assertTrue(second.join().collectedDataProducts().contains(price));
+        assertEquals(List.of(price), collected);
+    }
+
+    private DataProvider firstCandidate(ExecutionPlanner planner) {
+        DataProductConstraint constraint = new DataProductConstraint(List.of("REAL_TIME"), null, 0, 10.0, 5.0, 1.0, 1.0);
+        ExecutionPlan plan = planner.plan(Map.of(RealTimeSharePrice.class, constraint), Set.of(TickerSymbol.class));
+        return plan.requestedNodes().get(0).candidates().get(0).binding().provider();
+    }
+
+    private ExecutionResult execute(List<DataProvider> providers, double attemptTimeoutFactor, boolean hedging, double maxTime) {
+        ProviderStatistics statistics = new ProviderStatistics(20, 0.2, 0.05, 1000);
+        ExecutionPlanner planner = new ExecutionPlanner(new ProviderRegistry(providers, executor), statistics, circuitBreakers, metrics, 0);
+        ExecutionEngine engine = new ExecutionEngine(
+                executor, new ProductCache(100, 60), TYPE_REGISTRY, statistics, circuitBreakers, metrics, CollectedProductSink.NONE, true, 5, 500, attemptTimeoutFactor, hedging, 95, 20);
+
+        DataProductConstraint constraint = new DataProductConstraint(List.of("REAL_TIME"), null, 0, 10.0, maxTime, 1.0, 1.0);
+        ExecutionPlan plan = planner.plan(Map.of(RealTimeSharePrice.class, constraint), Set.of(TickerSymbol.class));
+        return engine.execute(plan, List.of(new TickerSymbol("AAPL"))).join();
+    }
+
+    private static class PriceProvider implements DataProvider {
+        private final double expectedTime;
+        private final double expectedCost;
+        private final long delayMillis;
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        private PriceProvider(double expectedTime, double expectedCost, long delayMillis) {
+            this.expectedTime = expectedTime;
+            this.expectedCost = expectedCost;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public List<Class<? extends DataProduct>> getSupportedDataProducts() {
+            return List.of(RealTimeSharePrice.class);
+        }
+
+        @Override
+        public List<Class<? extends DataProduct>> getDependencies(Class<? extends DataProduct> dataProduct) {
+            return List.of(TickerSymbol.class);
+        }
+
+        @Override
+        public List<String> getMethods(Class<? extends DataProduct> dataProduct) {
+            return List.of("REAL_TIME");
+        }
+
+        @Override
+        public double getExpectedTime(Class<? extends DataProduct> dataProduct) {
+            return expectedTime;
+        }
+
+        @Override
+        public double getExpectedCost(Class<? extends DataProduct> dataProduct) {
+            return expectedCost;
+        }
+
+        @Override
+        public DataProduct collectDataProduct(
+                Class<? extends DataProduct> dataProduct,
+                Map<Class<? extends DataProduct>, DataProduct> availableDataProducts,
+                DataProductConstraint constraint
+        ) throws Exception {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            TickerSymbol tickerSymbol = (TickerSymbol) availableDataProducts.get(TickerSymbol.class);
+            return new RealTimeSharePrice(tickerSymbol.symbol(), BigDecimal.valueOf(100.0));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+// File: src/test/java/se/iqesolutions/datamanager/engine/SingleFlightTest.java
+
+package se.iqesolutions.datamanager.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsShareOneFetch() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Integer> upstream = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = singleFlight.execute("AAPL", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<Integer> second = singleFlight.execute("AAPL", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+
+        upstream.complete(100);
+
+        assertEquals(100, first.join());
+        assertEquals(100, second.join());
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.getCoalescedCount());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotRemembered() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CompletableFuture<Integer> upstream = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = singleFlight.execute("NOK", () -> upstream);
+        CompletableFuture<Integer> second = singleFlight.execute("NOK", () -> upstream);
+        upstream.completeExceptionally(new IllegalStateException("feed down"));
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+
+        // Once the failed call has completed, the next caller fetches again
+        assertEquals(50, singleFlight.execute("NOK", () -> CompletableFuture.completedFuture(50)).join());
+    }
+
+    @Test
+    public void testCallIsCancelledWhenEveryCallerCancels() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CompletableFuture<Integer> upstream = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = singleFlight.execute("AAPL", () -> upstream);
+        CompletableFuture<Integer> second = singleFlight.execute("AAPL", () -> upstream);
+
+        first.cancel(true);
+        assertFalse(upstream.isCancelled());
+
+        second.cancel(true);
+        assertTrue(upstream.isCancelled());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+}
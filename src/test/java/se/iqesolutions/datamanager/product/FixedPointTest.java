@@ -0,0 +1,54 @@
+// File: src/test/java/se/iqesolutions/datamanager/product/FixedPointTest.java
+
+package se.iqesolutions.datamanager.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixedPointTest {
+
+    @Test
+    public void testDecimalKeepsItsScale() {
+        RealTimeSharePrice sharePrice = new RealTimeSharePrice("AAPL", new BigDecimal("123.45"));
+
+        assertEquals(12345, sharePrice.priceUnscaled());
+        assertEquals(2, sharePrice.priceScale());
+        assertEquals(new BigDecimal("123.45"), sharePrice.price());
+        assertEquals(123.45, sharePrice.priceAsDouble());
+        assertEquals(new RealTimeSharePrice("AAPL", 12345, 2), sharePrice);
+    }
+
+    @Test
+    public void testNegativeScaleIsNormalized() {
+        RealTimeSharePrice sharePrice = new RealTimeSharePrice("AAPL", new BigDecimal("1E+2"));
+
+        assertEquals(100, sharePrice.priceUnscaled());
+        assertEquals(0, sharePrice.priceScale());
+        assertEquals(new RealTimeSharePrice("AAPL", 100, 0), sharePrice);
+        assertEquals(new RealTimeSharePrice("AAPL", 5, 1), new RealTimeSharePrice("AAPL", new BigDecimal("0.50000000000000000000")));
+    }
+
+    @Test
+    public void testDecimalsBeyondEighteenDigitsAreRejected() {
+        assertEquals(999_999_999_999_999_999L, FixedPoint.unscaled(new BigDecimal("999999999999999999")));
+        assertThrows(ArithmeticException.class, () -> new RealTimeSharePrice("AAPL", new BigDecimal("1E+18")));
+        assertThrows(ArithmeticException.class, () -> new RealTimeSharePrice("AAPL", new BigDecimal("12345678901234567890.5")));
+        assertThrows(ArithmeticException.class, () -> new RealTimeSharePrice("AAPL", new BigDecimal("1E-19")));
+    }
+
+    @Test
+    public void testJsonRendersTheExactDecimal() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        DataProduct sharePrice = new RealTimeSharePrice("AAPL", 1000, 1);
+
+        String json = objectMapper.writeValueAsString(sharePrice);
+
+        assertEquals("{\"@class\":\"se.iqesolutions.datamanager.product.impl.RealTimeSharePrice\",\"tickerSymbol\":\"AAPL\",\"price\":100.0}", json);
+        assertEquals(sharePrice, objectMapper.readValue(json, DataProduct.class));
+    }
+}
@@ -0,0 +1,72 @@
+// File: src/test/java/se/iqesolutions/datamanager/subscription/ConflatingSubscriberTest.java
+
+package se.iqesolutions.datamanager.subscription;
+
+import org.junit.jupiter.api.Test;
+import se.iqesolutions.datamanager.product.DataProduct;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConflatingSubscriberTest {
+
+    @Test
+    public void testSlowSubscriberOnlySeesLatestPricePerTicker() throws Exception {
+        List<DataProduct> received = new CopyOnWriteArrayList<>();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(3);
+        ConflatingSubscriber subscriber = new ConflatingSubscriber(Set.of("AAPL", "NOK"), RealTimeSharePrice.class, price -> {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            received.add(price);
+            delivered.countDown();
+        }, command -> new Thread(command).start(), closed -> {
+        });
+
+        subscriber.offer("AAPL", price("AAPL", 1));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // The client is still reading the first price while these arrive
+        subscriber.offer("AAPL", price("AAPL", 2));
+        subscriber.offer("NOK", price("NOK", 5));
+        subscriber.offer("AAPL", price("AAPL", 3));
+        release.countDown();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(price("AAPL", 1), price("AAPL", 3), price("NOK", 5)), received);
+    }
+
+    @Test
+    public void testFailedDeliveryClosesSubscriber() {
+        AtomicInteger sends = new AtomicInteger();
+        AtomicInteger closes = new AtomicInteger();
+        ConflatingSubscriber subscriber = new ConflatingSubscriber(Set.of("AAPL"), RealTimeSharePrice.class, price -> {
+            sends.incrementAndGet();
+            throw new IOException("Broken pipe");
+        }, Runnable::run, closed -> closes.incrementAndGet());
+
+        subscriber.offer("AAPL", price("AAPL", 1));
+        subscriber.offer("AAPL", price("AAPL", 2));
+
+        assertEquals(1, sends.get());
+        assertEquals(1, closes.get());
+    }
+
+    private static RealTimeSharePrice price(String ticker, double price) {
+        return new RealTimeSharePrice(ticker, BigDecimal.valueOf(price));
+    }
+}
@@ -0,0 +1,102 @@
+// File: src/test/java/se/iqesolutions/datamanager/subscription/PriceSubscriptionsIntegrationTest.java
+
+package se.iqesolutions.datamanager.subscription;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import se.iqesolutions.datamanager.DataManagerApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A context of its own, so the background polling of subscriptions does not touch the other integration tests
+@SpringBootTest(
+        classes = DataManagerApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "datamanager.subscriptions.poll-interval-ms=200",
+                "datamanager.ticks.directory=target/ticks/${random.uuid}"
+        }
+)
+public class PriceSubscriptionsIntegrationTest {
+
+    @Autowired
+    private PriceSubscriptions priceSubscriptions;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testSubscribePrices_PushesPolledPrices() {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/data/subscribe/prices?tickers=AAPL,MSFT"))
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+
+        // Both tickers are polled together, so the first two events arrive within one poll interval
+        List<String> events = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, response.statusCode());
+            try (Stream<String> lines = response.body()) {
+                return lines.filter(line -> line.startsWith("data:")).limit(2).toList();
+            }
+        });
+
+        assertTrue(events.stream().anyMatch(event -> event.contains("\"tickerSymbol\":\"AAPL\"")));
+        assertTrue(events.stream().anyMatch(event -> event.contains("\"tickerSymbol\":\"MSFT\"")));
+
+        // The disconnect is noticed at the next update, after which the tickers are no longer polled
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (priceSubscriptions.getSubscribedTickerCount() > 0) {
+                Thread.sleep(50);
+            }
+        });
+    }
+
+    @Test
+    public void testSubscribeScores_PushesInitialAndRecomputedScores() {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/data/subscribe/scores?tickers=NOK"))
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .build();
+
+        // The first score is sent once collected, the next one after the next polled price
+        List<String> events = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, response.statusCode());
+            try (Stream<String> lines = response.body()) {
+                return lines.filter(line -> line.startsWith("event:") || line.startsWith("data:")).limit(4).toList();
+            }
+        });
+
+        assertEquals(List.of("event:score", "event:score"), events.stream().filter(line -> line.startsWith("event:")).toList());
+        assertTrue(events.stream().filter(line -> line.startsWith("data:"))
+                .allMatch(event -> event.contains("\"tickerSymbol\":\"NOK\"")));
+    }
+
+    @Test
+    public void testSubscribePrices_RejectsInvalidAndTooManyTickers() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String tooMany = String.join(",", Stream.iterate(0, i -> i + 1).limit(101).map(i -> "T" + i).toList());
+        for (String tickers : List.of("..%2Fetc", "AAPL,%24%7Bjndi%7D", tooMany)) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/data/subscribe/prices?tickers=" + tickers))
+                    .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                    .build();
+
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+
+            assertEquals(400, response.statusCode(), tickers);
+        }
+        assertEquals(0, priceSubscriptions.getSubscribedTickerCount());
+    }
+}
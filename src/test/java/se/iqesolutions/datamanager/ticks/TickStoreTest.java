@@ -0,0 +1,138 @@
+// File: src/test/java/se/iqesolutions/datamanager/ticks/TickStoreTest.java
+
+package se.iqesolutions.datamanager.ticks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.iqesolutions.datamanager.product.impl.RealTimeSharePrice;
+import se.iqesolutions.datamanager.product.impl.TickerSymbol;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TickStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testTicksSurviveRestartAcrossSegments() throws Exception {
+        TickStore store = store(4, 16, 16);
+        for (int i = 1; i <= 10; i++) {
+            store.collected(new RealTimeSharePrice("AAPL", i * 10L, 1));
+        }
+        store.collected(new TickerSymbol("AAPL"));
+        store.collected(new RealTimeSharePrice("../AAPL", 10, 1));
+        store.shutdown();
+
+        assertEquals(10, store.getWrittenCount());
+        try (Stream<Path> segments = Files.list(directory.resolve("AAPL"))) {
+            assertEquals(3, segments.count());
+        }
+
+        TickStore reopened = store(4, 16, 16);
+        List<Tick> ticks = reopened.query("AAPL", 0, Long.MAX_VALUE, 100).ticks();
+        assertEquals(10, ticks.size());
+        assertEquals(BigDecimal.valueOf(1.0), ticks.get(0).price());
+        assertEquals(BigDecimal.valueOf(10.0), ticks.get(9).price());
+        assertEquals(3, reopened.query("AAPL", 0, Long.MAX_VALUE, 3).ticks().size());
+
+        // Appending continues in the last segment after a restart
+        reopened.collected(new RealTimeSharePrice("AAPL", 110, 1));
+        reopened.shutdown();
+        assertEquals(11, reopened.query("AAPL", 0, Long.MAX_VALUE, 100).ticks().size());
+        assertTrue(reopened.query("../AAPL", 0, Long.MAX_VALUE, 100).ticks().isEmpty());
+        assertTrue(reopened.query("MSFT", 0, Long.MAX_VALUE, 100).ticks().isEmpty());
+    }
+
+    @Test
+    public void testScanReadsOnlyTheTimeRange() throws Exception {
+        TickStore store = store(3, 16, 16);
+        long before = System.currentTimeMillis();
+        store.collected(new RealTimeSharePrice("NOK", 500, 1));
+        Thread.sleep(20);
+        long middle = System.currentTimeMillis();
+        Thread.sleep(20);
+        for (int i = 0; i < 5; i++) {
+            store.collected(new RealTimeSharePrice("NOK", 510 + i, 1));
+        }
+        store.shutdown();
+
+        assertEquals(6, store.scan("NOK", before, Long.MAX_VALUE, 100, (timestamp, price, scale) -> {
+        }));
+        List<Tick> later = store.query("NOK", middle, Long.MAX_VALUE, 100).ticks();
+        assertEquals(5, later.size());
+        assertEquals(new BigDecimal("51.0"), later.get(0).price());
+        assertEquals(1, store.query("NOK", before, middle, 100).ticks().size());
+        assertTrue(store.query("NOK", middle, before, 100).ticks().isEmpty());
+    }
+
+    @Test
+    public void testTickersAreStoredUpperCased() throws Exception {
+        TickStore store = store(4, 16, 16);
+        store.collected(new RealTimeSharePrice("nok", 500, 1));
+        store.collected(new RealTimeSharePrice("NOK", 510, 1));
+        store.shutdown();
+
+        try (Stream<Path> tickers = Files.list(directory)) {
+            assertEquals(List.of(directory.resolve("NOK")), tickers.toList());
+        }
+        assertEquals(2, store.query("Nok", 0, Long.MAX_VALUE, 100).ticks().size());
+        assertEquals("NOK", store.query("nok", 0, Long.MAX_VALUE, 100).tickerSymbol());
+    }
+
+    @Test
+    public void testOldestSegmentsAreDeletedAndSequenceContinuesAfterRestart() throws Exception {
+        // One open ticker at a time, so every other tick opens the log again from disk
+        TickStore store = store(2, 2, 1);
+        for (int i = 1; i <= 10; i++) {
+            store.collected(new RealTimeSharePrice("AAPL", i * 10L, 1));
+            store.collected(new RealTimeSharePrice("MSFT", i * 10L, 1));
+        }
+        store.shutdown();
+
+        assertEquals(20, store.getWrittenCount());
+        assertEquals(List.of("0000000003", "0000000004"), sequences("AAPL"));
+        List<Tick> kept = store.query("AAPL", 0, Long.MAX_VALUE, 100).ticks();
+        assertEquals(List.of(BigDecimal.valueOf(7.0), BigDecimal.valueOf(8.0), BigDecimal.valueOf(9.0), BigDecimal.valueOf(10.0)),
+                kept.stream().map(Tick::price).toList());
+
+        TickStore reopened = store(2, 2, 1);
+        reopened.collected(new RealTimeSharePrice("AAPL", 110, 1));
+        reopened.shutdown();
+        assertEquals(List.of("0000000004", "0000000005"), sequences("AAPL"));
+        List<Tick> ticks = reopened.query("AAPL", 0, Long.MAX_VALUE, 100).ticks();
+        assertEquals(BigDecimal.valueOf(11.0), ticks.get(ticks.size() - 1).price());
+    }
+
+    @Test
+    public void testSegmentsPastRetentionAreDeleted() throws Exception {
+        TickLog log = TickLog.open(directory.resolve("AAPL"), 2, 16);
+        for (long timestamp = 1000; timestamp <= 6000; timestamp += 1000) {
+            log.append(timestamp, 100, 1);
+        }
+
+        // A segment goes once its last tick is older, so the one from 3000 to 4000 stays
+        assertFalse(log.deleteBefore(3500));
+        assertEquals(List.of("0000000001", "0000000002"), sequences("AAPL"));
+        assertTrue(log.deleteBefore(Long.MAX_VALUE));
+        log.append(7000, 100, 1);
+        assertEquals(List.of("0000000003"), sequences("AAPL"));
+        assertEquals(1, log.scan(0, Long.MAX_VALUE, 100, (timestamp, price, scale) -> assertEquals(7000, timestamp)));
+    }
+
+    private TickStore store(int segmentCapacity, int maxSegmentsPerTicker, int maxOpenTickers) {
+        return new TickStore(true, directory.toString(), segmentCapacity, maxSegmentsPerTicker, maxOpenTickers, 30, 100);
+    }
+
+    private List<String> sequences(String ticker) throws Exception {
+        try (Stream<Path> segments = Files.list(directory.resolve(ticker))) {
+            return segments.map(file -> file.getFileName().toString().substring(0, 10)).sorted().toList();
+        }
+    }
+}